@@ -0,0 +1,34 @@
+#!/usr/bin/env bash
+# Builds the prod jar with AOT and a Class Data Sharing archive for it. The jar is extracted to
+# target/cds (CDS only shares classes loaded from plain jars on the class path, not nested ones) and
+# started once with -Dspring.context.exit=onRefresh to record every class loaded up to a refreshed
+# context. Prints the command that starts the app on the archive.
+#
+#   ./cds-archive.sh [--skip-build]
+set -euo pipefail
+
+HERE=$(cd "$(dirname "$0")" && pwd)
+CDS="$HERE/target/cds"
+
+if [[ "${1:-}" != --skip-build ]]; then
+	(cd "$HERE" && mvn -B -q -Pprod package -DskipTests)
+fi
+
+rm -rf "$CDS"
+mkdir -p "$CDS/exploded"
+(cd "$CDS/exploded" && jar xf "$(ls "$HERE"/target/app-*-exec.jar)")
+jar cf "$CDS/app.jar" -C "$CDS/exploded/BOOT-INF/classes" .
+
+# the archive only matches the class path it was recorded with, so keep the packaged order
+CLASS_PATH="$CDS/app.jar"
+while read -r lib; do
+	lib=${lib#- \"}
+	CLASS_PATH="$CLASS_PATH:$CDS/exploded/${lib%\"}"
+done < "$CDS/exploded/BOOT-INF/classpath.idx"
+echo "$CLASS_PATH" > "$CDS/classpath.txt"
+
+JAVA_OPTS="-Dspring.aot.enabled=true -Dspring.profiles.active=prod"
+java -XX:ArchiveClassesAtExit="$CDS/app.jsa" -Dspring.context.exit=onRefresh $JAVA_OPTS \
+	-cp "$CLASS_PATH" com.app.AppApplication > "$CDS/training.log" 2>&1
+
+echo "java -XX:SharedArchiveFile=$CDS/app.jsa $JAVA_OPTS -cp \$(cat $CDS/classpath.txt) com.app.AppApplication"
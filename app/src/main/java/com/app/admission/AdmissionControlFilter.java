@@ -0,0 +1,230 @@
+package com.app.admission;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Admission control in front of {@code /api/notes}: each request takes a token
+ * from its caller's {@link TokenBucket} for its budget, or is answered 429.
+ * Searches and bulk work also share a cap on how many run at once, past which
+ * they are answered 503.
+ */
+@Component
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+	public static final String CLIENT_ID_HEADER = "X-Client-Id";
+
+	private static final String RELEASE_ATTRIBUTE = AdmissionControlFilter.class.getName() + ".release";
+
+	enum Budget {
+		READ, WRITE, SEARCH, BULK
+	}
+
+	private record Key(Budget budget, String caller) {
+	}
+
+	/** A budget's limits, and the counters of requests turned away past each. */
+	private record Limits(double rate, int burst, Semaphore concurrent, Counter throttled, Counter overloaded) {
+	}
+
+	private final Map<Budget, Limits> limits = new EnumMap<>(Budget.class);
+
+	// idle callers are dropped, and come back with a full bucket
+	private final Cache<Key, TokenBucket> buckets = Caffeine.newBuilder().maximumSize(100_000)
+			.expireAfterAccess(1, TimeUnit.MINUTES).build();
+
+	@Autowired
+	Environment environment;
+
+	@Autowired
+	MeterRegistry meterRegistry;
+
+	@Value("${notes.admission.enabled:true}")
+	boolean enabled;
+
+	@PostConstruct
+	void init() {
+		for (Budget budget : Budget.values()) {
+			String prefix = "notes.admission." + budget.name().toLowerCase(Locale.ROOT);
+			int concurrent = environment.getProperty(prefix + ".concurrent", Integer.class, 0);
+			Semaphore slots = concurrent > 0 ? new Semaphore(concurrent) : null;
+			limits.put(budget, new Limits(environment.getRequiredProperty(prefix + ".rate", Double.class),
+					environment.getRequiredProperty(prefix + ".burst", Integer.class), slots,
+					rejected(budget, HttpStatus.TOO_MANY_REQUESTS), rejected(budget, HttpStatus.SERVICE_UNAVAILABLE)));
+			if (slots != null) {
+				Gauge.builder("notes.admission.in-flight", slots, s -> concurrent - s.availablePermits())
+						.description("Requests holding a concurrency slot").tag("budget", tag(budget))
+						.register(meterRegistry);
+			}
+		}
+	}
+
+	@Override
+	protected boolean shouldNotFilter(HttpServletRequest request) {
+		return !enabled || !path(request).startsWith("/api/notes");
+	}
+
+	@Override
+	protected boolean shouldNotFilterAsyncDispatch() {
+		return false;
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+		if (isAsyncDispatch(request)) {
+			// the async work, e.g. an export's stream, is done once it dispatches back
+			Release release = (Release) request.getAttribute(RELEASE_ATTRIBUTE);
+			try {
+				chain.doFilter(request, response);
+			} finally {
+				if (release != null) {
+					release.release();
+				}
+			}
+			return;
+		}
+
+		Budget budget = budget(request);
+		Limits limit = limits.get(budget);
+
+		TokenBucket bucket = buckets.get(new Key(budget, caller(request)),
+				key -> new TokenBucket(limit.rate(), limit.burst(), System.nanoTime()));
+		long wait = bucket.tryAcquire(System.nanoTime());
+		if (wait > 0) {
+			reject(response, limit.throttled(), HttpStatus.TOO_MANY_REQUESTS,
+					TimeUnit.NANOSECONDS.toSeconds(wait) + 1);
+			return;
+		}
+
+		Semaphore slots = limit.concurrent();
+		if (slots == null) {
+			chain.doFilter(request, response);
+			return;
+		}
+		if (!slots.tryAcquire()) {
+			reject(response, limit.overloaded(), HttpStatus.SERVICE_UNAVAILABLE, 1);
+			return;
+		}
+		boolean async = false;
+		try {
+			chain.doFilter(request, response);
+			if (request.isAsyncStarted()) {
+				// released by the dispatch back, or by the listener if it times out or fails
+				Release release = new Release(slots);
+				request.setAttribute(RELEASE_ATTRIBUTE, release);
+				request.getAsyncContext().addListener(release);
+				async = true;
+			}
+		} finally {
+			if (!async) {
+				slots.release();
+			}
+		}
+	}
+
+	static Budget budget(HttpServletRequest request) {
+		String path = path(request);
+		String method = request.getMethod();
+		if (path.startsWith("/api/notes/search/")) {
+			return Budget.SEARCH;
+		}
+		if (path.equals("/api/notes/addnotes") || path.equals("/api/notes/import")
+				|| path.equals("/api/notes/export") || ("DELETE".equals(method)
+						&& (path.startsWith("/api/notes/byuser/") || path.startsWith("/api/notes/bytitle/")))) {
+			return Budget.BULK;
+		}
+		return "GET".equals(method) || "HEAD".equals(method) ? Budget.READ : Budget.WRITE;
+	}
+
+	private static String caller(HttpServletRequest request) {
+		String clientId = request.getHeader(CLIENT_ID_HEADER);
+		return clientId != null && !clientId.isBlank() ? clientId : request.getRemoteAddr();
+	}
+
+	private static String path(HttpServletRequest request) {
+		return request.getRequestURI().substring(request.getContextPath().length());
+	}
+
+	private Counter rejected(Budget budget, HttpStatus status) {
+		return Counter.builder("notes.admission.rejected").description("Requests turned away by admission control")
+				.tag("budget", tag(budget)).tag("status", String.valueOf(status.value())).register(meterRegistry);
+	}
+
+	private static void reject(HttpServletResponse response, Counter rejected, HttpStatus status,
+			long retryAfterSeconds) throws IOException {
+		rejected.increment();
+		response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+		response.sendError(status.value());
+	}
+
+	private static String tag(Budget budget) {
+		return budget.name().toLowerCase(Locale.ROOT);
+	}
+
+	/** Gives a slot back, once, when an async request such as a streamed export is done. */
+	private static final class Release implements AsyncListener {
+
+		private final Semaphore slots;
+
+		private final AtomicBoolean released = new AtomicBoolean();
+
+		Release(Semaphore slots) {
+			this.slots = slots;
+		}
+
+		@Override
+		public void onComplete(AsyncEvent event) {
+			release();
+		}
+
+		@Override
+		public void onTimeout(AsyncEvent event) {
+			release();
+		}
+
+		@Override
+		public void onError(AsyncEvent event) {
+			release();
+		}
+
+		@Override
+		public void onStartAsync(AsyncEvent event) {
+		}
+
+		private void release() {
+			if (released.compareAndSet(false, true)) {
+				slots.release();
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,48 @@
+package com.app.admission;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket holding up to {@code burst} tokens, refilled at
+ * {@code ratePerSecond}.
+ * <p>
+ * Rather than a token count and a refill time, the bucket keeps the one instant
+ * at which it would be full again (the GCRA form of a token bucket): taking a
+ * token pushes that instant one refill interval later, and is refused when it
+ * would end up more than {@code burst} intervals ahead of now. Taking a token
+ * is therefore a single compare-and-set.
+ */
+final class TokenBucket {
+
+	private final long interval;
+
+	private final long capacity;
+
+	private final AtomicLong fullAt;
+
+	TokenBucket(double ratePerSecond, int burst, long now) {
+		interval = (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond);
+		capacity = interval * burst;
+		fullAt = new AtomicLong(now);
+	}
+
+	/**
+	 * Takes a token at {@code now} (in {@link System#nanoTime()} terms). Returns
+	 * 0 if one was taken, otherwise how many nanoseconds until one is available.
+	 */
+	long tryAcquire(long now) {
+		while (true) {
+			long full = fullAt.get();
+			long next = Math.max(full, now) + interval;
+			long wait = next - now - capacity;
+			if (wait > 0) {
+				return wait;
+			}
+			if (fullAt.compareAndSet(full, next)) {
+				return 0;
+			}
+		}
+	}
+
+}
@@ -0,0 +1,124 @@
+package com.app.cache;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.app.changes.NoteChange;
+import com.app.changes.NoteChangeLog;
+import com.app.event.NoteChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * List validators stamped with the seq and time of the latest {@link NoteChange}
+ * for the whole table, each user and each title, so replicas that are up to date
+ * hand out the same ETags. The ETags also carry the time the change log began,
+ * and are weak because the same list is sent gzipped or not.
+ */
+@Component
+public class NoteChangeCounters {
+
+	public record Stamp(String eTag, long lastModified) {
+	}
+
+	private record Change(long number, long millis) {
+
+		static Change latest(Change a, Change b) {
+			return a.number >= b.number ? a : b;
+		}
+
+	}
+
+	/** Latest changes per key, falling back to the newest change evicted or not attributed to a key. */
+	private static final class Keyed {
+
+		private final Cache<String, Change> changes;
+
+		private final AtomicReference<Change> forgotten;
+
+		private final AtomicReference<Change> unattributed;
+
+		Keyed(long maximumSize, Change start) {
+			forgotten = new AtomicReference<>(start);
+			unattributed = new AtomicReference<>(start);
+			// the eviction listener runs before the entry disappears, so a reader never misses both
+			changes = Caffeine.newBuilder().maximumSize(maximumSize)
+					.<String, Change>evictionListener(
+							(key, change, cause) -> forgotten.accumulateAndGet(change, Change::latest))
+					.build();
+		}
+
+		void record(String key, boolean attributed, Change change) {
+			if (attributed && key != null) {
+				changes.asMap().merge(key, change, Change::latest);
+			} else {
+				unattributed.accumulateAndGet(change, Change::latest);
+			}
+		}
+
+		Change latest(String key) {
+			Change change = changes.getIfPresent(key);
+			return Change.latest(change != null ? change : forgotten.get(), unattributed.get());
+		}
+
+	}
+
+	@Autowired
+	NoteChangeLog changeLog;
+
+	@Value("${notes.http.etag.tracked-keys:100000}")
+	long trackedKeys;
+
+	private String epoch;
+
+	private AtomicReference<Change> table;
+
+	private Keyed users;
+
+	private Keyed titles;
+
+	@PostConstruct
+	void init() {
+		Instant startedAt = changeLog.startedAt();
+		Instant lastChangedAt = changeLog.lastChangedAt();
+		epoch = Long.toString(startedAt.toEpochMilli(), Character.MAX_RADIX);
+		Change start = new Change(changeLog.lastSeq(),
+				(lastChangedAt != null ? lastChangedAt : startedAt).toEpochMilli());
+		table = new AtomicReference<>(start);
+		users = new Keyed(trackedKeys, start);
+		titles = new Keyed(trackedKeys, start);
+	}
+
+	public Stamp all() {
+		return stamp(table.get());
+	}
+
+	public Stamp byUser(String createdBy) {
+		return stamp(users.latest(createdBy));
+	}
+
+	public Stamp byTitle(String title) {
+		return stamp(titles.latest(title));
+	}
+
+	@EventListener
+	public void onNoteChange(NoteChange entry) {
+		Change change = new Change(entry.seq(), entry.changedAt().toEpochMilli());
+		boolean attributed = entry.type() != NoteChangedEvent.Type.UPDATED;
+		users.record(entry.createdBy(), attributed, change);
+		titles.record(entry.title(), attributed, change);
+		table.accumulateAndGet(change, Change::latest);
+	}
+
+	private Stamp stamp(Change change) {
+		return new Stamp("W/\"" + epoch + "-" + change.number() + "\"", change.millis());
+	}
+
+}
@@ -0,0 +1,178 @@
+package com.app.cache;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.app.dao.NotesDao;
+import com.app.event.NoteChangedEvent;
+import com.app.model.Note;
+import com.app.model.NoteSummary;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Read-through cache in front of the id, createdBy and title lookups. The
+ * createdBy and title caches hold only ids, so an edited note is evicted once,
+ * by id. Misses load outside the cache's locks, and a load that overlaps a
+ * change event is not kept.
+ */
+@Component
+public class NotesCache {
+
+	public static final String NOTES = "notes";
+	public static final String NOTE_SUMMARIES = "noteSummaries";
+	public static final String NOTE_IDS_BY_USER = "noteIdsByUser";
+	public static final String NOTE_IDS_BY_TITLE = "noteIdsByTitle";
+
+	@Autowired
+	CacheManager cacheManager;
+
+	@Autowired
+	NotesDao notesDao;
+
+	@Autowired
+	PlatformTransactionManager transactionManager;
+
+	private Cache notes;
+
+	private Cache summaries;
+
+	private Cache noteIdsByUser;
+
+	private Cache noteIdsByTitle;
+
+	private TransactionTemplate readOnly;
+
+	/** Bumped by every change event, to spot loads that raced with one. */
+	private final AtomicLong changes = new AtomicLong();
+
+	@PostConstruct
+	void init() {
+		notes = cacheManager.getCache(NOTES);
+		summaries = cacheManager.getCache(NOTE_SUMMARIES);
+		noteIdsByUser = cacheManager.getCache(NOTE_IDS_BY_USER);
+		noteIdsByTitle = cacheManager.getCache(NOTE_IDS_BY_TITLE);
+		readOnly = new TransactionTemplate(transactionManager);
+		readOnly.setReadOnly(true);
+	}
+
+	public Optional<Note> findById(long id) {
+		Cache.ValueWrapper cached = notes.get(id);
+		if (cached != null) {
+			return Optional.ofNullable((Note) cached.get());
+		}
+		long seen = changes.get();
+		Optional<Note> loaded = readOnly.execute(status -> notesDao.findById(id).map(NotesCache::initialized));
+		loaded.ifPresent(note -> putIfUnchanged(seen, () -> notes.put(id, note), () -> notes.evict(id)));
+		return loaded;
+	}
+
+	public List<NoteSummary> findByCreatedBy(String createdBy) {
+		return findAll(noteIdsByUser, createdBy, notesDao::findSummariesByCreatedBy, NoteSummary::createdBy);
+	}
+
+	public List<NoteSummary> findByTitle(String title) {
+		return findAll(noteIdsByTitle, title, notesDao::findSummariesByTitle, NoteSummary::title);
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	// before NoteChangeCounters moves the list ETags on
+	@Order(Ordered.HIGHEST_PRECEDENCE)
+	public void onNoteChanged(NoteChangedEvent event) {
+		changes.incrementAndGet();
+		notes.evict(event.id());
+		summaries.evict(event.id());
+		if (event.createdBy() != null) {
+			noteIdsByUser.evict(event.createdBy());
+		}
+		if (event.title() != null) {
+			noteIdsByTitle.evict(event.title());
+		}
+	}
+
+	private List<NoteSummary> findAll(Cache idsCache, String key, Function<String, List<NoteSummary>> query,
+			Function<NoteSummary, String> keyOf) {
+		@SuppressWarnings("unchecked")
+		List<Long> ids = idsCache.get(key, List.class);
+		if (ids != null) {
+			List<NoteSummary> cached = getAll(ids);
+			if (cached.size() == ids.size() && cached.stream().allMatch(note -> key.equals(keyOf.apply(note)))) {
+				return cached;
+			}
+			// a note in this list was deleted or moved away by an edit we couldn't attribute
+			idsCache.evict(key);
+		}
+
+		long seen = changes.get();
+		List<NoteSummary> loaded = query.apply(key);
+		putIfUnchanged(seen, () -> {
+			loaded.forEach(note -> summaries.put(note.id(), note));
+			idsCache.put(key, loaded.stream().map(NoteSummary::id).toList());
+		}, () -> {
+			loaded.forEach(note -> summaries.evict(note.id()));
+			idsCache.evict(key);
+		});
+		return loaded;
+	}
+
+	/** Cached summaries for {@code ids}, in order, loading the ones not cached in one query. */
+	private List<NoteSummary> getAll(List<Long> ids) {
+		Map<Long, NoteSummary> found = new HashMap<>();
+		List<Long> missing = new ArrayList<>();
+		for (Long id : ids) {
+			Cache.ValueWrapper cached = summaries.get(id);
+			if (cached != null && cached.get() != null) {
+				found.put(id, (NoteSummary) cached.get());
+			} else {
+				missing.add(id);
+			}
+		}
+		if (!missing.isEmpty()) {
+			long seen = changes.get();
+			List<NoteSummary> loaded = notesDao.findSummariesByIdIn(missing);
+			loaded.forEach(note -> found.put(note.id(), note));
+			putIfUnchanged(seen, () -> loaded.forEach(note -> summaries.put(note.id(), note)),
+					() -> loaded.forEach(note -> summaries.evict(note.id())));
+		}
+		return ids.stream().map(found::get).filter(Objects::nonNull).toList();
+	}
+
+	/**
+	 * Caches what was loaded since {@code seen}, unless a change event came in
+	 * meanwhile. Checking again after the put covers an event that lands between
+	 * the first check and the put.
+	 */
+	private void putIfUnchanged(long seen, Runnable put, Runnable undo) {
+		if (changes.get() != seen) {
+			return;
+		}
+		put.run();
+		if (changes.get() != seen) {
+			undo.run();
+		}
+	}
+
+	/** Cached notes outlive their session, so their lazy collection has to be loaded first. */
+	private static Note initialized(Note note) {
+		Hibernate.initialize(note.getTicketIds());
+		return note;
+	}
+
+}
@@ -0,0 +1,98 @@
+package com.app.changes;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.app.dao.NotesDao;
+import com.app.event.NoteChangedEvent;
+import com.app.model.Note;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Replays the change log entries other replicas committed as
+ * {@link NoteChangedEvent}s every {@code notes.cluster.poll-interval}, so this
+ * node's caches, search index and list ETags follow their writes.
+ */
+@Component
+@ConditionalOnProperty("notes.cluster.enabled")
+public class ChangeLogFollower {
+
+	private static final Logger log = LoggerFactory.getLogger(ChangeLogFollower.class);
+
+	private static final int BATCH = 1000;
+
+	@Autowired
+	NoteChangeLog changeLog;
+
+	@Autowired
+	NotesDao notesDao;
+
+	@Autowired
+	ApplicationEventPublisher publisher;
+
+	private long applied;
+
+	@PostConstruct
+	void init() {
+		// what was committed before this node started is already in the database it reads from
+		applied = changeLog.lastSeq();
+	}
+
+	@Scheduled(fixedDelayString = "${notes.cluster.poll-interval:PT0.2S}")
+	public void poll() {
+		long last = changeLog.readLastSeq();
+		if (last <= applied) {
+			return;
+		}
+		if (applied < changeLog.trimmedSeq()) {
+			log.error("Changes after seq {} were trimmed before this node applied them; caches may be stale until they"
+					+ " expire", applied);
+		}
+		while (applied < last) {
+			List<NoteChange> changes = changeLog.readOthersAfter(applied, last, BATCH);
+			apply(changes);
+			applied = changes.size() < BATCH ? last : changes.get(changes.size() - 1).seq();
+		}
+		changeLog.committed(last);
+	}
+
+	private void apply(List<NoteChange> changes) {
+		List<Long> written = changes.stream().filter(change -> change.type() != NoteChangedEvent.Type.DELETED)
+				.map(NoteChange::noteId).distinct().toList();
+		Map<Long, Note> current = written.isEmpty() ? Map.of()
+				: notesDao.findWithTicketIdsByIdIn(written).stream()
+						.collect(Collectors.toMap(Note::getId, Function.identity()));
+		changeLog.replay(() -> {
+			for (NoteChange change : changes) {
+				NoteChangedEvent event = event(change, current.get(change.noteId()));
+				if (event != null) {
+					publisher.publishEvent(event);
+				}
+			}
+		});
+		// the entries themselves once their changes are in, for the list ETags
+		changes.forEach(publisher::publishEvent);
+	}
+
+	private static NoteChangedEvent event(NoteChange change, Note note) {
+		return switch (change.type()) {
+		case DELETED -> new NoteChangedEvent(NoteChangedEvent.Type.DELETED, change.noteId(), change.title(),
+				change.createdBy(), null);
+		// gone by now; its delete is further on in the log
+		case CREATED -> note == null ? null : NoteChangedEvent.created(note);
+		case UPDATED -> note == null ? null : NoteChangedEvent.updated(note);
+		};
+	}
+
+}
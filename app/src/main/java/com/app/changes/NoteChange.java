@@ -0,0 +1,15 @@
+package com.app.changes;
+
+import java.time.Instant;
+
+import com.app.event.NoteChangedEvent;
+
+/**
+ * One entry of the change feed. Like the {@link NoteChangedEvent} it was
+ * written from, an {@link NoteChangedEvent.Type#UPDATED} entry leaves out the
+ * title or user it didn't change, and deletes by user or title only name the
+ * one they matched on.
+ */
+public record NoteChange(long seq, NoteChangedEvent.Type type, long noteId, String title, String createdBy,
+		Instant changedAt) {
+}
@@ -0,0 +1,329 @@
+package com.app.changes;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.app.event.NoteChangedEvent;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Appends every {@link NoteChangedEvent} to {@code note_change} in the
+ * transaction that made it, taking seqs from the {@code note_change_head} row
+ * right before commit so they are handed out in commit order. Committed entries
+ * are published as {@link NoteChange}s; {@link #trim()} keeps the log bounded.
+ */
+@Component
+public class NoteChangeLog {
+
+	private static final Logger log = LoggerFactory.getLogger(NoteChangeLog.class);
+
+	private static final String INSERT = "insert into note_change (seq, type, note_id, title, created_by, changed_at,"
+			+ " node) values (?, ?, ?, ?, ?, ?, ?)";
+
+	private static final String SELECT = "select seq, type, note_id, title, created_by, changed_at from note_change";
+
+	/** Reader waiting for an entry after {@code since}, see {@link #whenChangedAfter}. */
+	private record Waiter(long since, Runnable callback) {
+	}
+
+	private final AtomicLong lastSeq = new AtomicLong();
+
+	private final String node = UUID.randomUUID().toString();
+
+	/** Set while {@link ChangeLogFollower} replays other nodes' changes, which are logged already. */
+	private final ThreadLocal<Boolean> replaying = new ThreadLocal<>();
+
+	private final Set<Waiter> waiters = ConcurrentHashMap.newKeySet();
+
+	// waiters are woken off the committing thread, which has a response of its own to send
+	private final ExecutorService notifier = Executors.newSingleThreadExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "notes-change-notifier");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	@PersistenceContext
+	EntityManager entityManager;
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	PlatformTransactionManager transactionManager;
+
+	@Autowired
+	ApplicationEventPublisher publisher;
+
+	@Value("${notes.changes.retention:P7D}")
+	Duration retention;
+
+	@Value("${notes.changes.compact-after:PT1H}")
+	Duration compactAfter;
+
+	@Value("${notes.changes.max-entries:1000000}")
+	int maxEntries;
+
+	private TransactionTemplate transactionTemplate;
+
+	@PostConstruct
+	void init() {
+		transactionTemplate = new TransactionTemplate(transactionManager);
+		lastSeq.set(readLastSeq());
+	}
+
+	@PreDestroy
+	void stop() {
+		notifier.shutdownNow();
+	}
+
+	/** The last seq committed, as far as this node knows. */
+	public long lastSeq() {
+		return lastSeq.get();
+	}
+
+	/**
+	 * The highest seq dropped; reading on from before it would miss changes.
+	 * Read from the database, as any node may have trimmed.
+	 */
+	public long trimmedSeq() {
+		return jdbcTemplate.queryForObject("select trimmed_seq from note_change_head where id = 1", Long.class);
+	}
+
+	/** When the log began; seqs count from 0 again in a database started afresh. */
+	public Instant startedAt() {
+		return jdbcTemplate.queryForObject("select started_at from note_change_head where id = 1", Timestamp.class)
+				.toInstant();
+	}
+
+	/** When the last change still in the log was made, if there is one. */
+	public Instant lastChangedAt() {
+		Timestamp last = jdbcTemplate.queryForObject("select max(changed_at) from note_change", Timestamp.class);
+		return last == null ? null : last.toInstant();
+	}
+
+	/** The last seq committed by any node. */
+	long readLastSeq() {
+		return jdbcTemplate.queryForObject("select last_seq from note_change_head where id = 1", Long.class);
+	}
+
+	/** Up to {@code limit} entries after {@code since}, oldest first. */
+	public List<NoteChange> readAfter(long since, int limit) {
+		return jdbcTemplate.query(SELECT + " where seq > ? order by seq fetch first ? rows only", NoteChangeLog::row,
+				since, limit);
+	}
+
+	/** Up to {@code limit} entries after {@code since} and up to {@code until} written by other nodes. */
+	List<NoteChange> readOthersAfter(long since, long until, int limit) {
+		return jdbcTemplate.query(SELECT + " where seq > ? and seq <= ? and (node is null or node <> ?) order by seq"
+				+ " fetch first ? rows only", NoteChangeLog::row, since, until, node, limit);
+	}
+
+	/** Publishes changes that are in the log already, without logging them again. */
+	void replay(Runnable publish) {
+		replaying.set(Boolean.TRUE);
+		try {
+			publish.run();
+		} finally {
+			replaying.remove();
+		}
+	}
+
+	private static NoteChange row(ResultSet rs, int row) throws SQLException {
+		return new NoteChange(rs.getLong(1), NoteChangedEvent.Type.valueOf(rs.getString(2)), rs.getLong(3),
+				rs.getString(4), rs.getString(5), rs.getTimestamp(6).toInstant());
+	}
+
+	/**
+	 * Runs {@code callback} once there is an entry after {@code since}: at once
+	 * if there already is, otherwise on a notifier thread when one is committed.
+	 * Returns a handle that stops the callback from running if it hasn't yet.
+	 */
+	public Runnable whenChangedAfter(long since, Runnable callback) {
+		Waiter waiter = new Waiter(since, callback);
+		waiters.add(waiter);
+		// registered before looking, so a commit in between can't be missed
+		if (lastSeq.get() > since && waiters.remove(waiter)) {
+			callback.run();
+		}
+		return () -> waiters.remove(waiter);
+	}
+
+	@EventListener
+	public void on(NoteChangedEvent event) {
+		if (replaying.get() != null) {
+			return;
+		}
+		if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+			committed(transactionTemplate.execute(status -> append(List.of(event))));
+			return;
+		}
+		// keyed by session, so a transaction started inside this one has entries of its own
+		SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+		Pending pending = (Pending) TransactionSynchronizationManager.getResource(session);
+		if (pending == null) {
+			pending = new Pending(session);
+			TransactionSynchronizationManager.bindResource(session, pending);
+			TransactionSynchronizationManager.registerSynchronization(pending);
+			session.getActionQueue().registerProcess(pending);
+		}
+		pending.events.add(event);
+	}
+
+	/**
+	 * Drops what {@code notes.changes.retention} and {@code max-entries} no
+	 * longer keep, and compacts what is older than {@code compact-after}.
+	 */
+	@Scheduled(initialDelayString = "${notes.changes.trim-interval:PT1M}",
+			fixedDelayString = "${notes.changes.trim-interval:PT1M}")
+	public void trim() {
+		Instant now = Instant.now();
+		Long expired = jdbcTemplate.queryForObject("select max(seq) from note_change where changed_at < ?",
+				Long.class, Timestamp.from(now.minus(retention)));
+		List<Long> overflow = jdbcTemplate.queryForList(
+				"select seq from note_change order by seq desc offset ? rows fetch next 1 rows only", Long.class,
+				maxEntries);
+		long drop = Math.max(expired == null ? 0 : expired, overflow.isEmpty() ? 0 : overflow.get(0));
+		if (drop > trimmedSeq()) {
+			// readers are turned away before the entries go, and writers only wait for the one update
+			jdbcTemplate.update("update note_change_head set trimmed_seq = greatest(trimmed_seq, ?) where id = 1",
+					drop);
+			jdbcTemplate.update("delete from note_change where seq <= ?", drop);
+		}
+		int compacted = jdbcTemplate.update("delete from note_change c where c.changed_at < ? and exists"
+				+ " (select 1 from note_change l where l.note_id = c.note_id and l.seq > c.seq)",
+				Timestamp.from(now.minus(compactAfter)));
+		if (drop > 0 || compacted > 0) {
+			log.debug("Change log trimmed up to seq {}, {} superseded entries compacted", drop, compacted);
+		}
+	}
+
+	/** Writes entries for {@code events} in the current transaction; returns them. */
+	private List<NoteChange> append(List<NoteChangedEvent> events) {
+		jdbcTemplate.update("update note_change_head set last_seq = last_seq + ? where id = 1", events.size());
+		long last = jdbcTemplate.queryForObject("select last_seq from note_change_head where id = 1", Long.class);
+		long first = last - events.size() + 1;
+		// the precision the column keeps, so the entry published here is the one other nodes read back
+		Timestamp now = Timestamp.from(Instant.now().truncatedTo(ChronoUnit.MICROS));
+		List<NoteChange> entries = new ArrayList<>(events.size());
+		for (int i = 0; i < events.size(); i++) {
+			NoteChangedEvent event = events.get(i);
+			entries.add(new NoteChange(first + i, event.type(), event.id(), event.title(), event.createdBy(),
+					now.toInstant()));
+		}
+		jdbcTemplate.batchUpdate(INSERT, new BatchPreparedStatementSetter() {
+
+			@Override
+			public void setValues(PreparedStatement statement, int i) throws SQLException {
+				NoteChange entry = entries.get(i);
+				statement.setLong(1, entry.seq());
+				statement.setString(2, entry.type().name());
+				statement.setLong(3, entry.noteId());
+				statement.setString(4, entry.title());
+				statement.setString(5, entry.createdBy());
+				statement.setTimestamp(6, now);
+				statement.setString(7, node);
+			}
+
+			@Override
+			public int getBatchSize() {
+				return entries.size();
+			}
+
+		});
+		return entries;
+	}
+
+	/** Publishes entries this node committed, then moves {@link #lastSeq()} on past them. */
+	private void committed(List<NoteChange> entries) {
+		entries.forEach(publisher::publishEvent);
+		committed(entries.get(entries.size() - 1).seq());
+	}
+
+	/** Moves {@link #lastSeq()} on to {@code last}, and wakes the readers waiting for it. */
+	void committed(long last) {
+		lastSeq.accumulateAndGet(last, Math::max);
+		if (waiters.isEmpty()) {
+			return;
+		}
+		notifier.execute(() -> {
+			for (Waiter waiter : waiters) {
+				if (waiter.since() < lastSeq.get() && waiters.remove(waiter)) {
+					waiter.callback().run();
+				}
+			}
+		});
+	}
+
+	/**
+	 * The entries of one transaction. Written by Hibernate after its final flush,
+	 * so the entries of notes flushed at commit are in; published once committed.
+	 */
+	private final class Pending implements TransactionSynchronization, BeforeTransactionCompletionProcess {
+
+		private final SessionImplementor session;
+
+		private final List<NoteChangedEvent> events = new ArrayList<>();
+
+		private List<NoteChange> entries = List.of();
+
+		Pending(SessionImplementor session) {
+			this.session = session;
+		}
+
+		@Override
+		public void doBeforeTransactionCompletion(SessionImplementor session) {
+			if (!events.isEmpty()) {
+				entries = append(events);
+			}
+		}
+
+		// ordered last, after the listeners of the events the entries were written for
+		@Override
+		public void afterCommit() {
+			if (!entries.isEmpty()) {
+				committed(entries);
+			}
+		}
+
+		@Override
+		public void afterCompletion(int status) {
+			TransactionSynchronizationManager.unbindResourceIfPossible(session);
+		}
+
+	}
+
+}
@@ -0,0 +1,25 @@
+package com.app.config;
+
+import java.sql.SQLException;
+
+import org.h2.tools.Server;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Opens the embedded database to other JVMs over H2's TCP protocol when
+ * {@code notes.h2.tcp-port} is set, e.g. for the reactive module to run against
+ * the same data at {@code r2dbc:h2:tcp://localhost:9092/mem:walmartdb}.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty("notes.h2.tcp-port")
+public class H2ServerConfiguration {
+
+	@Bean(initMethod = "start", destroyMethod = "stop")
+	Server h2TcpServer(@Value("${notes.h2.tcp-port}") String port) throws SQLException {
+		return Server.createTcpServer("-tcpPort", port);
+	}
+
+}
@@ -0,0 +1,21 @@
+package com.app.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Turns {@code @Timed} on beans into timers, e.g. {@code notes.service} on
+ * every NotesService method and {@code notes.tickets.extract}.
+ */
+@Configuration(proxyBeanMethods = false)
+public class MetricsConfiguration {
+
+	@Bean
+	TimedAspect timedAspect(MeterRegistry meterRegistry) {
+		return new TimedAspect(meterRegistry);
+	}
+
+}
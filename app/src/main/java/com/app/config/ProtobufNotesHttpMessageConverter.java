@@ -0,0 +1,143 @@
+package com.app.config;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Type;
+import java.util.List;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import com.app.model.Note;
+import com.app.model.NoteSummary;
+import com.fasterxml.jackson.core.JacksonException;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.protobuf.ProtobufMapper;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufSchema;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufSchemaLoader;
+
+/**
+ * Notes as protobuf, {@code application/x-protobuf}, against the schema in
+ * {@code proto/notes.proto}. A note is a {@code Note} message and a list of
+ * notes a {@code NoteList}, since protobuf has no top-level arrays. Jackson
+ * maps the messages to {@link Note} by field name, so the app needs no
+ * generated classes; clients generate theirs from the same file. A
+ * {@link NoteSummary} is written as a {@code Note} with only the fields it has.
+ */
+public class ProtobufNotesHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+	public static final MediaType PROTOBUF = new MediaType("application", "x-protobuf");
+
+	record NoteList(List<Note> notes) {
+	}
+
+	record SummaryList(List<NoteSummary> notes) {
+	}
+
+	private final ObjectReader noteReader;
+
+	private final ObjectReader listReader;
+
+	private final ObjectWriter noteWriter;
+
+	private final ObjectWriter listWriter;
+
+	private final ObjectWriter summaryListWriter;
+
+	public ProtobufNotesHttpMessageConverter() {
+		super(PROTOBUF);
+		ProtobufSchema schema;
+		try (InputStream proto = new ClassPathResource("proto/notes.proto").getInputStream()) {
+			schema = ProtobufSchemaLoader.std.load(proto, "Note");
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		// Note properties the schema doesn't have yet are left out rather than failing the response
+		ProtobufMapper mapper = ProtobufMapper.builder().enable(JsonGenerator.Feature.IGNORE_UNKNOWN).build();
+		ProtobufSchema listSchema = schema.withRootType("NoteList");
+		noteReader = mapper.readerFor(Note.class).with(schema);
+		noteWriter = mapper.writerFor(Note.class).with(schema);
+		listReader = mapper.readerFor(NoteList.class).with(listSchema);
+		listWriter = mapper.writerFor(NoteList.class).with(listSchema);
+		summaryListWriter = mapper.writerFor(SummaryList.class).with(listSchema);
+	}
+
+	@Override
+	protected boolean supports(Class<?> clazz) {
+		return Note.class.isAssignableFrom(clazz) || NoteSummary.class.isAssignableFrom(clazz);
+	}
+
+	@Override
+	public List<MediaType> getSupportedMediaTypes(Class<?> clazz) {
+		// the element type of a list is only known to canRead and canWrite, which check it
+		return List.class.isAssignableFrom(clazz) ? getSupportedMediaTypes() : super.getSupportedMediaTypes(clazz);
+	}
+
+	@Override
+	public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+		return (isNoteList(type) || isNote(type)) && canRead(mediaType);
+	}
+
+	@Override
+	public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+		// a handler declared as ResponseEntity<?> only tells us the class of what it returned
+		return (isNoteList(type) || isNote(type) || isListOf(type, NoteSummary.class) || supports(clazz))
+				&& canWrite(mediaType);
+	}
+
+	@Override
+	public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) throws IOException {
+		try {
+			if (isNoteList(type)) {
+				List<Note> notes = listReader.<NoteList>readValue(inputMessage.getBody()).notes();
+				return notes != null ? notes : List.of();
+			}
+			return noteReader.readValue(inputMessage.getBody());
+		} catch (JacksonException e) {
+			throw new HttpMessageNotReadableException("Invalid protobuf: " + e.getOriginalMessage(), e, inputMessage);
+		}
+	}
+
+	@Override
+	protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+		return read(clazz, null, inputMessage);
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) throws IOException {
+		if (object instanceof List<?> notes && !notes.isEmpty() && notes.get(0) instanceof NoteSummary) {
+			summaryListWriter.writeValue(outputMessage.getBody(), new SummaryList((List<NoteSummary>) notes));
+		} else if (object instanceof List<?> notes) {
+			listWriter.writeValue(outputMessage.getBody(), new NoteList((List<Note>) notes));
+		} else {
+			noteWriter.writeValue(outputMessage.getBody(), object);
+		}
+	}
+
+	private static boolean isNote(Type type) {
+		return type instanceof Class<?> clazz && Note.class.isAssignableFrom(clazz);
+	}
+
+	private static boolean isNoteList(Type type) {
+		return isListOf(type, Note.class);
+	}
+
+	private static boolean isListOf(Type type, Class<?> element) {
+		if (type == null) {
+			return false;
+		}
+		ResolvableType resolved = ResolvableType.forType(type);
+		return List.class.isAssignableFrom(resolved.toClass())
+				&& element.isAssignableFrom(resolved.asCollection().getGeneric(0).toClass());
+	}
+
+}
@@ -0,0 +1,47 @@
+package com.app.config;
+
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+/**
+ * Logs a sample of the SQL Hibernate sends, in place of
+ * {@code spring.jpa.show-sql}, which writes every statement to stdout.
+ * {@code notes.sql.log.sample-rate} is the fraction of statements logged,
+ * 0 (the default) turns it off and 1 logs them all. Statements are logged at
+ * INFO under {@code com.app.sql}.
+ */
+@Component
+public class SampledSqlLogger implements StatementInspector, HibernatePropertiesCustomizer {
+
+	private static final Logger log = LoggerFactory.getLogger("com.app.sql");
+
+	private final double sampleRate;
+
+	public SampledSqlLogger(@Value("${notes.sql.log.sample-rate:0}") double sampleRate) {
+		this.sampleRate = sampleRate;
+	}
+
+	@Override
+	public void customize(Map<String, Object> hibernateProperties) {
+		if (sampleRate > 0) {
+			hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, this);
+		}
+	}
+
+	@Override
+	public String inspect(String sql) {
+		if (sampleRate >= 1 || ThreadLocalRandom.current().nextDouble() < sampleRate) {
+			log.info(sql);
+		}
+		return sql;
+	}
+
+}
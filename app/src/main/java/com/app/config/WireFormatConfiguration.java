@@ -0,0 +1,60 @@
+package com.app.config;
+
+import java.util.List;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Binary alternatives to JSON for service-to-service clients, picked by the
+ * Accept and Content-Type headers: Smile ({@code application/x-jackson-smile})
+ * and CBOR ({@code application/cbor}) for everything the API sends, and
+ * protobuf ({@code application/x-protobuf}) for notes and lists of notes.
+ * Smile and CBOR are built from the same Jackson settings as the JSON mapper.
+ */
+@Configuration(proxyBeanMethods = false)
+public class WireFormatConfiguration implements WebMvcConfigurer {
+
+	@Bean
+	MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+		return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+	}
+
+	@Bean
+	MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+		return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+	}
+
+	@Override
+	public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+		// last, so a client that accepts anything still gets JSON
+		converters.add(new ProtobufNotesHttpMessageConverter());
+	}
+
+	@Override
+	public void addInterceptors(InterceptorRegistry registry) {
+		// one URL has a representation per format, and caches must keep them apart
+		registry.addInterceptor(new HandlerInterceptor() {
+			@Override
+			public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+				response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+				return true;
+			}
+		}).addPathPatterns("/api/**");
+	}
+
+}
@@ -1,25 +1,40 @@
 package com.app.controller;
 
+import java.io.InputStream;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.app.changes.NoteChange;
+import com.app.ingest.ImportProgress;
+import com.app.ingest.IngestStatus;
 import com.app.model.Note;
+import com.app.model.NoteSummary;
 import com.app.service.NotesService;
 
 import jakarta.validation.Valid;
+import jakarta.validation.groups.Default;
 
 @RestController
 @RequestMapping("/api/notes")
@@ -28,64 +43,138 @@ public class NotesController {
 	@Autowired
 	NotesService notesService;
 
-	@GetMapping(produces = { "application/json" })
-	public ResponseEntity<List<Note>> getAllNotes() throws Exception {
-		return notesService.getAllNotes();
+	@GetMapping(produces = { "application/json", "application/x-jackson-smile", "application/cbor",
+			"application/x-protobuf" })
+	public ResponseEntity<List<NoteSummary>> getAllNotes(@RequestParam(required = false) Long after,
+			@RequestParam(required = false) Integer limit, WebRequest request) {
+		return notesService.getAllNotes(after, limit, request);
 
 	}
 
+	@GetMapping(value = "export", produces = { "application/x-ndjson" })
+	public ResponseEntity<StreamingResponseBody> exportNotes() {
+		return notesService.exportNotes();
+
+	}
+
+	@GetMapping(value = "export", produces = { "text/csv" })
+	public ResponseEntity<StreamingResponseBody> exportNotesAsCsv() {
+		return notesService.exportNotesAsCsv();
+
+	}
+
+	@PostMapping(value = "import", consumes = { "application/x-ndjson", "text/csv" }, produces = {
+			"application/x-ndjson" })
+	public ResponseEntity<StreamingResponseBody> importNotes(InputStream body,
+			@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType) {
+		return notesService.importNotes(body, contentType);
+	}
+
+	@GetMapping(value = "changes", produces = "application/json")
+	public DeferredResult<ResponseEntity<List<NoteChange>>> getChanges(@RequestParam(defaultValue = "0") long since,
+			@RequestParam(required = false) Integer limit, @RequestParam(required = false) Integer wait) {
+		return notesService.getChanges(since, limit, wait);
+	}
+
 	@GetMapping("/byuser/{user}")
-	public ResponseEntity<List<Note>> getNotesByUser(@PathVariable("user") String createdBy) throws Exception {
-		return notesService.getNotesByUser(createdBy);
+	public ResponseEntity<List<NoteSummary>> getNotesByUser(@PathVariable("user") String createdBy, WebRequest request) {
+		return notesService.getNotesByUser(createdBy, request);
 
 	}
 
 	@GetMapping("/bytitle/{title}")
-	public ResponseEntity<List<Note>> getNotesByTitle(@PathVariable String title) throws Exception {
-		return notesService.getNotesByTitle(title);
+	public ResponseEntity<List<NoteSummary>> getNotesByTitle(@PathVariable String title, WebRequest request) {
+		return notesService.getNotesByTitle(title, request);
+
+	}
+
+	@GetMapping("/byticket/{ticketId}")
+	public ResponseEntity<List<NoteSummary>> getNotesByTicketId(@PathVariable String ticketId, WebRequest request) {
+		return notesService.getNotesByTicketIds(List.of(ticketId), request);
+
+	}
+
+	@GetMapping("/byticket")
+	public ResponseEntity<List<NoteSummary>> getNotesByTicketIds(@RequestParam("ids") Set<String> ticketIds,
+			WebRequest request) {
+		return notesService.getNotesByTicketIds(ticketIds, request);
 
 	}
 
 	@GetMapping("search/{keyword}")
-	public ResponseEntity<List<Note>> searchByKeyword(@PathVariable String keyword) throws Exception {
-		return notesService.searchByKeyword(keyword);
+	public ResponseEntity<List<NoteSummary>> searchByKeyword(@PathVariable String keyword,
+			@RequestParam(required = false) Integer offset, @RequestParam(required = false) Integer limit,
+			WebRequest request) {
+		return notesService.searchByKeyword(keyword, offset, limit, request);
 
 	}
 
 	@GetMapping("load")
-	public ResponseEntity<List<Note>> addAllData() {
+	public ResponseEntity<ImportProgress> addAllData() {
 		return notesService.load();
 
 	}
 
 	@PostMapping
-	public ResponseEntity<Note> addNote(@Valid @RequestBody Note note) throws Exception {
+	public ResponseEntity<Note> addNote(@Valid @RequestBody Note note) {
 		return notesService.addNote(note);
 	}
 
 	@PostMapping("addnotes")
-	public ResponseEntity<List<Note>> addNotes(@RequestBody List<Note> notes) throws Exception {
+	public ResponseEntity<List<Note>> addNotes(@RequestBody List<Note> notes) {
 		return notesService.addNotes(notes);
 	}
 
+	@PostMapping(headers = NotesService.PREFER)
+	public ResponseEntity<?> addNoteAsync(@Valid @RequestBody Note note,
+			@RequestHeader(NotesService.PREFER) List<String> prefer) {
+		return notesService.addNoteAsync(note, prefer);
+	}
+
+	@PostMapping(value = "addnotes", headers = NotesService.PREFER)
+	public ResponseEntity<?> addNotesAsync(@RequestBody List<Note> notes,
+			@RequestHeader(NotesService.PREFER) List<String> prefer) {
+		return notesService.addNotesAsync(notes, prefer);
+	}
+
+	@GetMapping("ingest/{trackingId}")
+	public ResponseEntity<IngestStatus> getIngestStatus(@PathVariable String trackingId) {
+		return notesService.getIngestStatus(trackingId);
+	}
+
+	@GetMapping("/{id}")
+	public ResponseEntity<Note> getNote(@PathVariable Long id) {
+		return notesService.getNote(id);
+	}
+
 	@PutMapping("/{id}")
-	public ResponseEntity<Note> editNote(@PathVariable Long id, @RequestBody Note note) {
-		return notesService.editNote(note, id);
+	public ResponseEntity<Note> editNote(@PathVariable Long id,
+			@Validated({ Default.class, Note.Replace.class }) @RequestBody Note note,
+			@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+		return notesService.editNote(note, id, ifMatch);
+	}
+
+	@PatchMapping(value = "/{id}", consumes = { "application/json", "application/merge-patch+json" })
+	public ResponseEntity<Note> patchNote(@PathVariable Long id, @Valid @RequestBody Note patch,
+			@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+		return notesService.patchNote(patch, id, ifMatch);
 	}
 
 	@DeleteMapping("/{id}")
-	public ResponseEntity<HttpStatus> delete(@PathVariable Long id) throws Exception {
+	public ResponseEntity<HttpStatus> delete(@PathVariable Long id) {
 		return notesService.deleteById(id);
 	}
 
 	@DeleteMapping("/byuser/{user}")
-	public ResponseEntity<List<Note>> deleteNote(@PathVariable("user") String createdBy) throws Exception {
-		return notesService.deleteNoteByCreatedBy(createdBy);
+	public ResponseEntity<List<Note>> deleteNote(@PathVariable("user") String createdBy,
+			@RequestParam(defaultValue = "true") boolean returnDeleted) {
+		return notesService.deleteNoteByCreatedBy(createdBy, returnDeleted);
 	}
 
 	@DeleteMapping("/bytitle/{title}")
-	public ResponseEntity<List<Note>> deleteNoteByTitle(@PathVariable String title) throws Exception {
-		return notesService.deleteNoteByTitle(title);
+	public ResponseEntity<List<Note>> deleteNoteByTitle(@PathVariable String title,
+			@RequestParam(defaultValue = "true") boolean returnDeleted) {
+		return notesService.deleteNoteByTitle(title, returnDeleted);
 	}
 
 }
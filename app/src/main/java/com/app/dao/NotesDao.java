@@ -1,22 +1,93 @@
 package com.app.dao;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import com.app.model.Note;
 
+import jakarta.persistence.QueryHint;
+
 @Repository
-public interface NotesDao extends JpaRepository<Note, Long> {
+public interface NotesDao extends JpaRepository<Note, Long>, NotesDaoCustom {
 	List<Note> findByCreatedBy(String createdBy);
 
 	List<Note> findByTitle(String title);
 
-	List<Note> deleteByCreatedBy(String createdBy);
+	/**
+	 * Notes of a user with their ticket ids fetched in the same query, so they
+	 * can still be rendered after the rows are deleted.
+	 */
+	@Query("select distinct n from Note n left join fetch n.ticketIds where n.createdBy = :createdBy")
+	List<Note> findWithTicketIdsByCreatedBy(String createdBy);
+
+	@Query("select distinct n from Note n left join fetch n.ticketIds where n.title = :title")
+	List<Note> findWithTicketIdsByTitle(String title);
+
+	/**
+	 * Overwrites title, createdBy and text in one statement, if the note is still
+	 * at {@code version} (any version when {@code null}). Returns the rows
+	 * updated: 0 means the note is gone or was changed by someone else. Bulk
+	 * updates skip the entity's callbacks, so the caller passes the preview of
+	 * the text along.
+	 */
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("update Note n set n.title = :title, n.createdBy = :createdBy, n.text = :text, n.preview = :preview, "
+			+ "n.version = n.version + 1 where n.id = :id and (:version is null or n.version = :version)")
+	int replace(long id, Long version, String title, String createdBy, String text, String preview);
+
+	/** Like {@link #replace} but {@code null} arguments leave the column as it is. */
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("update Note n set n.title = coalesce(:title, n.title), n.createdBy = coalesce(:createdBy, n.createdBy), "
+			+ "n.text = coalesce(:text, n.text), n.preview = coalesce(:preview, n.preview), n.version = n.version + 1 "
+			+ "where n.id = :id and (:version is null or n.version = :version)")
+	int patch(long id, Long version, String title, String createdBy, String text, String preview);
+
+	/**
+	 * Deletes the note and its ticket ids in one pass, without loading it.
+	 * Returns the rows deleted: 0 means there was no such note. Bulk deletes
+	 * skip the entity listener, so the caller publishes the event.
+	 */
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("delete from Note n where n.id = :id")
+	int deleteNoteById(long id);
+
+	@Query("select n.version from Note n where n.id = :id")
+	long findVersionById(long id);
+
+	@Query("select n.id from Note n where n.createdBy = :createdBy")
+	List<Long> findIdsByCreatedBy(String createdBy);
+
+	@Query("select n.id from Note n where n.title = :title")
+	List<Long> findIdsByTitle(String title);
+
+	/**
+	 * Forward-only cursor over the whole table. Must be consumed inside a
+	 * transaction and closed by the caller.
+	 */
+	@QueryHints({ @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+			@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+	@Query("select n from Note n order by n.id")
+	Stream<Note> streamAll();
 
-	List<Note> deleteByTitle(String title);
+	/**
+	 * Like {@link #streamAll()} but with each note's ticket ids joined in, for
+	 * callers that render the whole entity.
+	 */
+	@QueryHints({ @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+			@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+	@Query("select n from Note n left join fetch n.ticketIds order by n.id")
+	Stream<Note> streamAllWithTicketIds();
 
-	List<Note> searchByTitleContainingOrTextContaining(String title, String text);
+	@EntityGraph(attributePaths = "ticketIds")
+	List<Note> findWithTicketIdsByIdIn(Collection<Long> ids);
 
 }
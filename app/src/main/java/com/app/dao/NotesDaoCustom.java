@@ -0,0 +1,49 @@
+package com.app.dao;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import com.app.model.Note;
+import com.app.model.NoteSummary;
+
+/**
+ * Write paths of {@link NotesDao} that need more control over the persistence
+ * context than {@code JpaRepository} gives, and the {@link NoteSummary} reads,
+ * which select only the columns a summary shows.
+ */
+public interface NotesDaoCustom {
+
+	/**
+	 * Inserts new notes in JDBC batches, flushing and clearing the persistence
+	 * context every {@code notes.ingest.chunk-size} notes so memory doesn't grow
+	 * with the size of the import. The notes are detached afterwards.
+	 */
+	void insertAll(List<Note> notes);
+
+	/**
+	 * Replaces the ticket ids of a note with plain SQL, for updates that bypass
+	 * the persistence context.
+	 */
+	void replaceTicketIds(long noteId, Set<String> ticketIds);
+
+	/**
+	 * Keyset page: summaries of the notes with an id strictly greater than
+	 * {@code after}, in id order. Uses the primary key index, so cost does not
+	 * depend on how deep the client has paged.
+	 */
+	List<NoteSummary> findSummariesAfter(long after, int limit);
+
+	List<NoteSummary> findSummariesByCreatedBy(String createdBy);
+
+	List<NoteSummary> findSummariesByTitle(String title);
+
+	List<NoteSummary> findSummariesByIdIn(Collection<Long> ids);
+
+	/**
+	 * Summaries of the notes mentioning any of {@code ticketIds}, answered from
+	 * the index on note_ticket_ids.ticket_ids, each with all of its ticket ids.
+	 */
+	List<NoteSummary> findSummariesByTicketIdIn(Collection<String> ticketIds);
+
+}
@@ -0,0 +1,121 @@
+package com.app.dao;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.app.model.Note;
+import com.app.model.NoteSummary;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+class NotesDaoCustomImpl implements NotesDaoCustom {
+
+	/** A row per ticket id of each note, the text not among them; {@link #summaries} folds them up. */
+	private static final String SUMMARIES = "select n.id, n.title, n.createdBy, n.preview, t from Note n "
+			+ "left join n.ticketIds t where ";
+
+	@PersistenceContext
+	EntityManager entityManager;
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	@Value("${notes.ingest.chunk-size:1000}")
+	int chunkSize;
+
+	@Override
+	@Transactional
+	public void insertAll(List<Note> notes) {
+		int pending = 0;
+		for (Note note : notes) {
+			// persist rather than merge: no select per row, ids come from the pooled sequence
+			entityManager.persist(note);
+			if (++pending == chunkSize) {
+				entityManager.flush();
+				entityManager.clear();
+				pending = 0;
+			}
+		}
+		entityManager.flush();
+		entityManager.clear();
+	}
+
+	@Override
+	@Transactional
+	public void replaceTicketIds(long noteId, Set<String> ticketIds) {
+		jdbcTemplate.update("delete from note_ticket_ids where note_id = ?", noteId);
+		jdbcTemplate.batchUpdate("insert into note_ticket_ids (note_id, ticket_ids) values (?, ?)", ticketIds,
+				ticketIds.size(), (statement, ticketId) -> {
+					statement.setLong(1, noteId);
+					statement.setString(2, ticketId);
+				});
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public List<NoteSummary> findSummariesAfter(long after, int limit) {
+		// the page is picked in a subquery, as a limit on the join would count ticket ids rather than notes
+		return summaries(entityManager.createQuery(SUMMARIES
+				+ "n.id in (select m.id from Note m where m.id > :after order by m.id limit :limit) order by n.id",
+				Object[].class).setParameter("after", after).setParameter("limit", limit));
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public List<NoteSummary> findSummariesByCreatedBy(String createdBy) {
+		return summaries(entityManager.createQuery(SUMMARIES + "n.createdBy = :createdBy order by n.id", Object[].class)
+				.setParameter("createdBy", createdBy));
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public List<NoteSummary> findSummariesByTitle(String title) {
+		return summaries(entityManager.createQuery(SUMMARIES + "n.title = :title order by n.id", Object[].class)
+				.setParameter("title", title));
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public List<NoteSummary> findSummariesByIdIn(Collection<Long> ids) {
+		if (ids.isEmpty()) {
+			return List.of();
+		}
+		return summaries(entityManager.createQuery(SUMMARIES + "n.id in :ids order by n.id", Object[].class)
+				.setParameter("ids", ids));
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public List<NoteSummary> findSummariesByTicketIdIn(Collection<String> ticketIds) {
+		return summaries(entityManager.createQuery(SUMMARIES
+				+ "n.id in (select m.id from Note m join m.ticketIds u where u in :ticketIds) order by n.id",
+				Object[].class).setParameter("ticketIds", ticketIds));
+	}
+
+	private static List<NoteSummary> summaries(TypedQuery<Object[]> query) {
+		Map<Long, Object[]> notes = new LinkedHashMap<>();
+		Map<Long, Set<String>> ticketIds = new LinkedHashMap<>();
+		for (Object[] row : query.getResultList()) {
+			Long id = (Long) row[0];
+			notes.putIfAbsent(id, row);
+			Set<String> ids = ticketIds.computeIfAbsent(id, key -> new HashSet<>());
+			if (row[4] != null) {
+				ids.add((String) row[4]);
+			}
+		}
+		return notes.values().stream().map(row -> new NoteSummary((Long) row[0], (String) row[1], (String) row[2],
+				ticketIds.get((Long) row[0]), (String) row[3])).toList();
+	}
+
+}
@@ -0,0 +1,27 @@
+package com.app.event;
+
+import com.app.model.Note;
+
+/**
+ * Published whenever a note is created, updated or deleted. Fields that are
+ * {@code null} on an {@link Type#UPDATED} event were not changed.
+ */
+public record NoteChangedEvent(Type type, long id, String title, String createdBy, String text) {
+
+	public enum Type {
+		CREATED, UPDATED, DELETED
+	}
+
+	public static NoteChangedEvent created(Note note) {
+		return new NoteChangedEvent(Type.CREATED, note.getId(), note.getTitle(), note.getCreatedBy(), note.getText());
+	}
+
+	public static NoteChangedEvent updated(Note note) {
+		return new NoteChangedEvent(Type.UPDATED, note.getId(), note.getTitle(), note.getCreatedBy(), note.getText());
+	}
+
+	public static NoteChangedEvent deleted(Note note) {
+		return new NoteChangedEvent(Type.DELETED, note.getId(), note.getTitle(), note.getCreatedBy(), note.getText());
+	}
+
+}
@@ -0,0 +1,42 @@
+package com.app.event;
+
+import org.springframework.context.ApplicationEventPublisher;
+
+import com.app.model.Note;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * Turns JPA lifecycle callbacks on {@link Note} into {@link NoteChangedEvent}s,
+ * so every write that goes through the persistence context is seen, whether it
+ * came from {@code NotesService} or straight from {@code NotesDao}. Writes made
+ * with bulk JPQL bypass these callbacks and must publish their own events.
+ */
+public class NoteEntityListener {
+
+	private final ApplicationEventPublisher publisher;
+
+	// Hibernate has Spring build this listener outside the application context; under AOT only a
+	// constructor gets its arguments injected there, @Autowired fields are left null
+	public NoteEntityListener(ApplicationEventPublisher publisher) {
+		this.publisher = publisher;
+	}
+
+	@PostPersist
+	void created(Note note) {
+		publisher.publishEvent(NoteChangedEvent.created(note));
+	}
+
+	@PostUpdate
+	void updated(Note note) {
+		publisher.publishEvent(NoteChangedEvent.updated(note));
+	}
+
+	@PostRemove
+	void deleted(Note note) {
+		publisher.publishEvent(NoteChangedEvent.deleted(note));
+	}
+
+}
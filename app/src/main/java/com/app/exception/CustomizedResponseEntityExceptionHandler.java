@@ -1,25 +1,76 @@
 package com.app.exception;
 
+import java.sql.SQLTransientException;
 import java.time.LocalDateTime;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
+/**
+ * Turns exceptions into {@link ErrorDetails} responses.
+ * <p>
+ * A {@link NotesException} carries its own status and, for expected outcomes,
+ * isn't logged. Failures are logged once, here: with the stack trace of the
+ * cause, except for transient database trouble (timeouts, no connection to be
+ * had) which is answered 503 with a Retry-After and logged in a line, so that
+ * a storm of them isn't also a storm of stack traces.
+ */
 @ControllerAdvice
 public class CustomizedResponseEntityExceptionHandler extends ResponseEntityExceptionHandler {
 
+	private static final Logger log = LoggerFactory.getLogger(CustomizedResponseEntityExceptionHandler.class);
+
+	@ExceptionHandler(NotesException.class)
+	public final ResponseEntity<ErrorDetails> handleNotesException(NotesException ex, WebRequest request) {
+		if (!ex.getStatus().is5xxServerError()) {
+			return errorDetails(ex, ex.getStatus(), request);
+		}
+		return failure(ex, request);
+	}
+
 	@ExceptionHandler(Exception.class)
-	public final ResponseEntity<ErrorDetails> handleAllExceptions(Exception ex, WebRequest request) throws Exception {
-		ErrorDetails errorDetails = new ErrorDetails(LocalDateTime.now(), ex.getMessage(),
-				//"abcd", request.getDescription(false));
-				ex.getCause().getLocalizedMessage(), request.getDescription(false));
+	public final ResponseEntity<ErrorDetails> handleAllExceptions(Exception ex, WebRequest request) {
+		return failure(ex, request);
+	}
 
-		return new ResponseEntity<ErrorDetails>(errorDetails, HttpStatus.INTERNAL_SERVER_ERROR);
+	private ResponseEntity<ErrorDetails> failure(Exception ex, WebRequest request) {
+		if (isTransient(ex)) {
+			log.warn("{} on {}: {}", ex.getMessage(), request.getDescription(false),
+					NestedExceptionUtils.getMostSpecificCause(ex).toString());
+			return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1")
+					.body(details(ex, request));
+		}
+		log.error("{} on {}", ex.getMessage(), request.getDescription(false), ex);
+		return errorDetails(ex, HttpStatus.INTERNAL_SERVER_ERROR, request);
+	}
+
+	private static boolean isTransient(Throwable ex) {
+		for (Throwable t = ex; t != null; t = t.getCause()) {
+			if (t instanceof TransientDataAccessException || t instanceof CannotCreateTransactionException
+					|| t instanceof SQLTransientException) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static ResponseEntity<ErrorDetails> errorDetails(Exception ex, HttpStatus status, WebRequest request) {
+		return new ResponseEntity<>(details(ex, request), status);
+	}
 
+	private static ErrorDetails details(Exception ex, WebRequest request) {
+		return new ErrorDetails(LocalDateTime.now(), ex.getMessage(),
+				NestedExceptionUtils.getMostSpecificCause(ex).getLocalizedMessage(), request.getDescription(false));
 	}
 
-}
\ No newline at end of file
+}
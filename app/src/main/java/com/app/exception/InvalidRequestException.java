@@ -0,0 +1,14 @@
+package com.app.exception;
+
+import org.springframework.http.HttpStatus;
+
+/** A request the service won't run as asked, e.g. past a size limit; answered 400. */
+public class InvalidRequestException extends NotesException {
+
+	private static final long serialVersionUID = 1L;
+
+	public InvalidRequestException(String message) {
+		super(HttpStatus.BAD_REQUEST, message, null);
+	}
+
+}
@@ -0,0 +1,14 @@
+package com.app.exception;
+
+import org.springframework.http.HttpStatus;
+
+/** No note with the requested id; answered 404. */
+public class NoteNotFoundException extends NotesException {
+
+	private static final long serialVersionUID = 1L;
+
+	public NoteNotFoundException(Long id) {
+		super(HttpStatus.NOT_FOUND, "Note " + id + " not found", null);
+	}
+
+}
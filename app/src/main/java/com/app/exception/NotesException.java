@@ -0,0 +1,27 @@
+package com.app.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Base of the exceptions the notes API answers with a status of its own.
+ * <p>
+ * None of them fill in a stack trace: expected outcomes such as a missing note
+ * or a bad request are nothing to debug, and for failures the trace that
+ * matters is the cause's, which is kept.
+ */
+public abstract class NotesException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	private final HttpStatus status;
+
+	protected NotesException(HttpStatus status, String message, Throwable cause) {
+		super(message, cause, false, false);
+		this.status = status;
+	}
+
+	public HttpStatus getStatus() {
+		return status;
+	}
+
+}
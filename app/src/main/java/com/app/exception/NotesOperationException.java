@@ -0,0 +1,18 @@
+package com.app.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * An operation that failed unexpectedly, e.g. on a database error. Names the
+ * operation and keeps what went wrong as the cause; answered 500, or 503 by
+ * {@link CustomizedResponseEntityExceptionHandler} when the cause is transient.
+ */
+public class NotesOperationException extends NotesException {
+
+	private static final long serialVersionUID = 1L;
+
+	public NotesOperationException(String message, Throwable cause) {
+		super(HttpStatus.INTERNAL_SERVER_ERROR, message, cause);
+	}
+
+}
@@ -0,0 +1,235 @@
+package com.app.ingest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.app.dao.NotesDao;
+import com.app.model.Note;
+import com.app.service.TicketIdExtractor;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Opt-in asynchronous write path for new notes.
+ * <p>
+ * Request threads only enqueue; a single writer thread drains the queue,
+ * extracts ticket ids and commits everything it drained in one batched
+ * transaction. The queue is bounded by the number of notes it holds, and
+ * {@link #submit(List)} refuses work rather than blocking when it is full. If a
+ * coalesced transaction fails, its submissions are retried one at a time so a
+ * bad one doesn't take the others down with it.
+ */
+@Component
+public class AsyncNoteIngester {
+
+	private static final Logger log = LoggerFactory.getLogger(AsyncNoteIngester.class);
+
+	private record Submission(String trackingId, List<Note> notes) {
+	}
+
+	private final LinkedBlockingQueue<Submission> queue = new LinkedBlockingQueue<>();
+
+	private final AtomicInteger queuedNotes = new AtomicInteger();
+
+	private final ConcurrentHashMap<String, IngestStatus> statuses = new ConcurrentHashMap<>();
+
+	/** Tracking ids oldest first, to forget statuses beyond {@link #trackedStatuses}. */
+	private final ConcurrentLinkedQueue<String> statusOrder = new ConcurrentLinkedQueue<>();
+
+	@Autowired
+	NotesDao notesDao;
+
+	@Autowired
+	TicketIdExtractor ticketIdExtractor;
+
+	@Autowired
+	PlatformTransactionManager transactionManager;
+
+	@Autowired
+	MeterRegistry meterRegistry;
+
+	@Value("${notes.ingest.async.enabled:false}")
+	boolean enabled;
+
+	@Value("${notes.ingest.async.queue-capacity:10000}")
+	int queueCapacity;
+
+	@Value("${notes.ingest.async.max-batch:1000}")
+	int maxBatch;
+
+	@Value("${notes.ingest.async.tracked-statuses:10000}")
+	int trackedStatuses;
+
+	private volatile boolean running;
+
+	private Thread writer;
+
+	private Timer commitTimer;
+
+	private Counter rejected;
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	@PostConstruct
+	void start() {
+		if (!enabled) {
+			return;
+		}
+		Gauge.builder("notes.ingest.queue.depth", queuedNotes, AtomicInteger::get)
+				.description("Notes waiting for the async writer").register(meterRegistry);
+		commitTimer = Timer.builder("notes.ingest.commit").description("Time to commit one coalesced batch")
+				.publishPercentileHistogram().register(meterRegistry);
+		rejected = Counter.builder("notes.ingest.rejected").description("Submissions refused with a full queue")
+				.register(meterRegistry);
+
+		running = true;
+		writer = new Thread(this::drain, "notes-ingest-writer");
+		writer.setDaemon(true);
+		writer.start();
+	}
+
+	@PreDestroy
+	void stop() throws InterruptedException {
+		running = false;
+		if (writer != null) {
+			// the writer finishes what is already queued before it exits
+			writer.join(TimeUnit.SECONDS.toMillis(30));
+		}
+	}
+
+	/**
+	 * Queues notes for the writer. Returns empty when accepting them would take
+	 * the queue over capacity.
+	 */
+	public Optional<IngestStatus> submit(List<Note> notes) {
+		if (!running) {
+			throw new IllegalStateException("Async ingest is not enabled");
+		}
+		int size = notes.size();
+		int current;
+		do {
+			current = queuedNotes.get();
+			// an oversized submission is still let into an empty queue, or it could never be accepted
+			if (current + size > queueCapacity && current > 0) {
+				rejected.increment();
+				return Optional.empty();
+			}
+		} while (!queuedNotes.compareAndSet(current, current + size));
+
+		IngestStatus status = IngestStatus.queued(UUID.randomUUID().toString(), size);
+		track(status);
+		queue.add(new Submission(status.trackingId(), notes));
+		return Optional.of(status);
+	}
+
+	public Optional<IngestStatus> status(String trackingId) {
+		return Optional.ofNullable(statuses.get(trackingId));
+	}
+
+	private void drain() {
+		List<Submission> batch = new ArrayList<>();
+		while (running || !queue.isEmpty()) {
+			try {
+				Submission first = queue.poll(100, TimeUnit.MILLISECONDS);
+				if (first == null) {
+					continue;
+				}
+				batch.add(first);
+				int notes = first.notes().size();
+				Submission next;
+				while (notes < maxBatch && (next = queue.poll()) != null) {
+					batch.add(next);
+					notes += next.notes().size();
+				}
+				write(batch);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			} finally {
+				batch.forEach(submission -> queuedNotes.addAndGet(-submission.notes().size()));
+				batch.clear();
+			}
+		}
+	}
+
+	private void write(List<Submission> batch) {
+		try {
+			commit(batch);
+		} catch (RuntimeException e) {
+			if (batch.size() == 1) {
+				fail(batch.get(0), e);
+				return;
+			}
+			log.warn("Coalesced ingest of {} submissions failed, retrying them one by one", batch.size(), e);
+			for (Submission submission : batch) {
+				try {
+					commit(List.of(submission));
+				} catch (RuntimeException single) {
+					fail(submission, single);
+				}
+			}
+		}
+	}
+
+	private void commit(List<Submission> batch) {
+		List<Note> notes = new ArrayList<>();
+		for (Submission submission : batch) {
+			for (Note note : submission.notes()) {
+				note.setId(0);
+				note.setTicketIds(ticketIdExtractor.extract(note.getText()));
+				notes.add(note);
+			}
+		}
+
+		long start = System.nanoTime();
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> notesDao.insertAll(notes));
+		commitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+		for (Submission submission : batch) {
+			List<Long> ids = submission.notes().stream().map(Note::getId).toList();
+			statuses.computeIfPresent(submission.trackingId(), (id, status) -> status.committed(ids));
+		}
+	}
+
+	private void fail(Submission submission, RuntimeException e) {
+		log.error("Async ingest {} failed", submission.trackingId(), e);
+		String message = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+		statuses.computeIfPresent(submission.trackingId(), (id, status) -> status.failed(message));
+	}
+
+	private void track(IngestStatus status) {
+		statuses.put(status.trackingId(), status);
+		statusOrder.add(status.trackingId());
+		while (statuses.size() > trackedStatuses) {
+			String oldest = statusOrder.poll();
+			if (oldest == null) {
+				break;
+			}
+			statuses.remove(oldest);
+		}
+	}
+
+}
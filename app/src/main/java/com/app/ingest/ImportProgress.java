@@ -0,0 +1,17 @@
+package com.app.ingest;
+
+import java.util.List;
+
+/**
+ * A line of an import's response. {@code imported} and {@code failed} count
+ * every record so far, {@code errors} are the records that failed since the
+ * previous line. The last line is {@code done}; its {@code error} says why
+ * reading stopped before the end of the input, if it did.
+ */
+public record ImportProgress(long imported, long failed, List<RecordError> errors, boolean done, String error) {
+
+	/** A record left out, by the line of the input it starts on. */
+	public record RecordError(long line, String error) {
+	}
+
+}
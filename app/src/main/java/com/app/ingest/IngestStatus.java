@@ -0,0 +1,27 @@
+package com.app.ingest;
+
+import java.util.List;
+
+/**
+ * Where an asynchronously submitted batch of notes is. {@code noteIds} is set
+ * once the batch is committed, {@code error} if it failed.
+ */
+public record IngestStatus(String trackingId, State state, int notes, List<Long> noteIds, String error) {
+
+	public enum State {
+		QUEUED, COMMITTED, FAILED
+	}
+
+	static IngestStatus queued(String trackingId, int notes) {
+		return new IngestStatus(trackingId, State.QUEUED, notes, null, null);
+	}
+
+	IngestStatus committed(List<Long> noteIds) {
+		return new IngestStatus(trackingId, State.COMMITTED, notes, noteIds, null);
+	}
+
+	IngestStatus failed(String error) {
+		return new IngestStatus(trackingId, State.FAILED, notes, null, error);
+	}
+
+}
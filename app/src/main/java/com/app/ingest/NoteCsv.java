@@ -0,0 +1,43 @@
+package com.app.ingest;
+
+import org.springframework.http.MediaType;
+
+import com.app.model.Note;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+
+/**
+ * Notes as CSV: a header row, then a row per note. Export writes id, version,
+ * title, createdBy, ticketIds (separated by ';') and text, the long column
+ * last. Import goes by the header, so columns may come in any order and only
+ * title, createdBy and text are needed; the others are ignored, as ids are
+ * handed out again and ticket ids extracted again.
+ */
+public final class NoteCsv {
+
+	public static final MediaType MEDIA_TYPE = MediaType.parseMediaType("text/csv");
+
+	private static final CsvMapper MAPPER = CsvMapper.builder()
+			.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES).build();
+
+	private static final CsvSchema EXPORT = CsvSchema.builder().addNumberColumn("id").addNumberColumn("version")
+			.addColumn("title").addColumn("createdBy").addArrayColumn("ticketIds", ";").addColumn("text").build()
+			.withHeader();
+
+	private static final CsvSchema IMPORT = CsvSchema.emptySchema().withHeader().withArrayElementSeparator(";");
+
+	private NoteCsv() {
+	}
+
+	public static ObjectReader reader() {
+		return MAPPER.readerFor(Note.class).with(IMPORT);
+	}
+
+	public static ObjectWriter writer() {
+		return MAPPER.writerFor(Note.class).with(EXPORT);
+	}
+
+}
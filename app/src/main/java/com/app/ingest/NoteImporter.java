@@ -0,0 +1,195 @@
+package com.app.ingest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Component;
+
+import com.app.dao.NotesDao;
+import com.app.model.Note;
+import com.app.service.TicketIdExtractor;
+import com.fasterxml.jackson.core.exc.StreamReadException;
+import com.fasterxml.jackson.databind.DatabindException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+/**
+ * Streams NDJSON or {@link NoteCsv CSV} into the table in chunks of
+ * {@code notes.import.chunk-size}, each committed on its own. Records that
+ * can't be bound, break a constraint or are turned down by the database are
+ * left out and reported.
+ */
+@Component
+public class NoteImporter {
+
+	private static final Logger log = LoggerFactory.getLogger(NoteImporter.class);
+
+	@Autowired
+	NotesDao notesDao;
+
+	@Autowired
+	TicketIdExtractor ticketIdExtractor;
+
+	@Autowired
+	Validator validator;
+
+	@Autowired
+	MeterRegistry meterRegistry;
+
+	@Value("${notes.import.chunk-size:1000}")
+	int chunkSize;
+
+	private Counter importedRecords;
+
+	private Counter failedRecords;
+
+	@PostConstruct
+	void init() {
+		importedRecords = Counter.builder("notes.import.records").description("Records read by imports")
+				.tag("result", "imported").register(meterRegistry);
+		failedRecords = Counter.builder("notes.import.records").description("Records read by imports")
+				.tag("result", "failed").register(meterRegistry);
+	}
+
+	/**
+	 * Reads notes from {@code in} with {@code reader} and inserts them, handing
+	 * {@code progress} a line after every chunk and a last one when done, which
+	 * is also returned.
+	 */
+	public ImportProgress importNotes(ObjectReader reader, InputStream in, Consumer<ImportProgress> progress)
+			throws IOException {
+		Run run = new Run(progress);
+		long line = 1;
+		try (MappingIterator<Note> records = reader.readValues(in)) {
+			while (records.hasNextValue()) {
+				line = records.getCurrentLocation().getLineNr();
+				try {
+					run.add(records.nextValue(), line);
+				} catch (DatabindException e) {
+					// the iterator skips the rest of the record on the next call
+					run.fail(line, e.getOriginalMessage());
+				}
+			}
+		} catch (StreamReadException e) {
+			long at = e.getLocation() != null ? e.getLocation().getLineNr() : line;
+			return run.finish("Unreadable input at line " + at + ": " + e.getOriginalMessage());
+		}
+		return run.finish(null);
+	}
+
+	private void insert(List<Note> notes) {
+		for (Note note : notes) {
+			note.setId(0);
+			note.setVersion(0);
+			note.setTicketIds(ticketIdExtractor.extract(note.getText()));
+		}
+		notesDao.insertAll(notes);
+	}
+
+	private static String describe(Set<ConstraintViolation<Note>> violations) {
+		return violations.stream().map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+				.sorted().collect(Collectors.joining(", "));
+	}
+
+	/** One import: the chunk being filled and the errors not reported yet. */
+	private final class Run {
+
+		private final Consumer<ImportProgress> progress;
+
+		private final List<Note> notes = new ArrayList<>();
+
+		private final List<Long> lines = new ArrayList<>();
+
+		private final List<ImportProgress.RecordError> errors = new ArrayList<>();
+
+		private long imported;
+
+		private long failed;
+
+		Run(Consumer<ImportProgress> progress) {
+			this.progress = progress;
+		}
+
+		void add(Note note, long line) {
+			Set<ConstraintViolation<Note>> violations = validator.validate(note);
+			if (!violations.isEmpty()) {
+				fail(line, describe(violations));
+				return;
+			}
+			notes.add(note);
+			lines.add(line);
+			if (notes.size() + errors.size() >= chunkSize) {
+				commit();
+				report(false, null);
+			}
+		}
+
+		void fail(long line, String error) {
+			errors.add(new ImportProgress.RecordError(line, error));
+			failed++;
+			failedRecords.increment();
+			if (notes.size() + errors.size() >= chunkSize) {
+				commit();
+				report(false, null);
+			}
+		}
+
+		ImportProgress finish(String error) {
+			commit();
+			log.info("Import of {} notes done, {} left out{}", imported, failed, error == null ? "" : ": " + error);
+			return report(true, error);
+		}
+
+		private void commit() {
+			if (notes.isEmpty()) {
+				return;
+			}
+			try {
+				insert(notes);
+				imported += notes.size();
+				importedRecords.increment(notes.size());
+			} catch (RuntimeException e) {
+				log.warn("Import of a chunk of {} notes failed, retrying them one by one", notes.size(), e);
+				for (int i = 0; i < notes.size(); i++) {
+					try {
+						insert(List.of(notes.get(i)));
+						imported++;
+						importedRecords.increment();
+					} catch (RuntimeException single) {
+						errors.add(new ImportProgress.RecordError(lines.get(i),
+								NestedExceptionUtils.getMostSpecificCause(single).getMessage()));
+						failed++;
+						failedRecords.increment();
+					}
+				}
+			}
+			notes.clear();
+			lines.clear();
+		}
+
+		private ImportProgress report(boolean done, String error) {
+			ImportProgress line = new ImportProgress(imported, failed, List.copyOf(errors), done, error);
+			errors.clear();
+			progress.accept(line);
+			return line;
+		}
+
+	}
+
+}
@@ -0,0 +1,20 @@
+package com.app.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/** Stores {@link Note#getText()} compressed, see {@link NoteText}. */
+@Converter
+public class CompressedTextConverter implements AttributeConverter<String, byte[]> {
+
+	@Override
+	public byte[] convertToDatabaseColumn(String text) {
+		return NoteText.compress(text);
+	}
+
+	@Override
+	public String convertToEntityAttribute(byte[] stored) {
+		return NoteText.expand(stored);
+	}
+
+}
@@ -3,11 +3,28 @@ package com.app.model;
 import java.util.List;
 import java.util.Set;
 
+import com.app.event.NoteEntityListener;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import jakarta.persistence.CollectionTable;
+import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
 import jakarta.persistence.ElementCollection;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.Lob;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -16,20 +33,53 @@ import lombok.NoArgsConstructor;
 
 @Data
 @Entity
+@Table(indexes = { @Index(name = "idx_note_created_by", columnList = "created_by"),
+		@Index(name = "idx_note_title", columnList = "title") })
+@EntityListeners(NoteEntityListener.class)
 @AllArgsConstructor
 @NoArgsConstructor
 @Builder
 public class Note {
+	/** Checks for a PUT, which replaces every field: none may be left out. */
+	public interface Replace {
+	}
+
 	@Id
-	@GeneratedValue(strategy = GenerationType.SEQUENCE)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "note_seq")
+	@SequenceGenerator(name = "note_seq", sequenceName = "note_seq", allocationSize = 100)
 	private long id;
+	/** Bumped on every update; sent to clients as the ETag. */
+	@Version
+	private long version;
+	@NotNull(groups = Replace.class)
 	@Size(min=2)
 	private String title;
+	@NotNull(groups = Replace.class)
 	@Size(min=2)
 	private String createdBy;
+	/** Stored compressed; lists only read {@link #preview}, so a long text costs nothing until it is asked for. */
+	@NotNull(groups = Replace.class)
 	@Size(min=2)
+	@Lob
+	@Convert(converter = CompressedTextConverter.class)
 	private String text;
+	/**
+	 * The start of the text, for {@link NoteSummary}; kept in step by {@link #updatePreview()}. Never sent, but
+	 * read rather than ignored: protobuf skips an ignored field of a note in a list wrongly.
+	 */
+	@JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
+	@Column(length = NoteText.PREVIEW_LENGTH)
+	private String preview;
 	@ElementCollection
+	@CollectionTable(name = "note_ticket_ids", joinColumns = @JoinColumn(name = "note_id"), indexes = {
+			@Index(name = "idx_note_ticket_ids_note_id", columnList = "note_id"),
+			@Index(name = "idx_note_ticket_ids_ticket_ids", columnList = "ticket_ids") })
 	private Set<String> ticketIds;
-	
+
+	@PrePersist
+	@PreUpdate
+	void updatePreview() {
+		preview = NoteText.preview(text);
+	}
+
 }
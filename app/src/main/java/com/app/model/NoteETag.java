@@ -0,0 +1,45 @@
+package com.app.model;
+
+/**
+ * A note's ETag: its version, quoted. Clients send it back in If-Match to
+ * update only the version they read. If-Match compares strongly (RFC 7232
+ * section 3.1), so a weak tag never matches.
+ * <p>
+ * Plain Java, so the reactive app can use it without the JPA mapping.
+ */
+public final class NoteETag {
+
+	private NoteETag() {
+	}
+
+	public static String of(long version) {
+		return "\"" + version + "\"";
+	}
+
+	/** The version in an If-Match ETag, or {@code null} if absent, "*", weak or not one of ours. */
+	public static Long parse(String ifMatch) {
+		if (ifMatch == null) {
+			return null;
+		}
+		String tag = ifMatch.trim();
+		if (tag.length() < 3 || tag.charAt(0) != '"' || tag.charAt(tag.length() - 1) != '"') {
+			return null;
+		}
+		try {
+			return Long.valueOf(tag.substring(1, tag.length() - 1));
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+
+	/** If-Match "*": any version, as long as the note exists. */
+	public static boolean any(String ifMatch) {
+		return ifMatch != null && "*".equals(ifMatch.trim());
+	}
+
+	/** An If-Match that no version can match: neither "*" nor one of our strong ETags. */
+	public static boolean unmatchable(String ifMatch) {
+		return ifMatch != null && parse(ifMatch) == null && !any(ifMatch);
+	}
+
+}
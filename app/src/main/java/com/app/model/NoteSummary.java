@@ -0,0 +1,12 @@
+package com.app.model;
+
+import java.util.Set;
+
+/**
+ * A note as lists show it: its text is left out for a
+ * {@link NoteText#preview(String) preview}, so that a list of notes with
+ * pasted logs in them stays small. The whole note is at
+ * {@code GET /api/notes/{id}}.
+ */
+public record NoteSummary(long id, String title, String createdBy, Set<String> ticketIds, String preview) {
+}
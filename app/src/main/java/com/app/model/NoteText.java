@@ -0,0 +1,157 @@
+package com.app.model;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Note text is stored compressed in the format of H2's
+ * {@code COMPRESS(data, 'DEFLATE')}, so SQL can read it back with
+ * {@code UTF8TOSTRING(EXPAND(text))}. Lists show {@link #preview(String)}
+ * instead.
+ * <p>
+ * Plain Java, so the reactive app can use it without the JPA mapping.
+ */
+public final class NoteText {
+
+	/** Characters of text a preview keeps, the ellipsis included. */
+	public static final int PREVIEW_LENGTH = 200;
+
+	private static final byte NO = 0;
+
+	private static final byte DEFLATE = 2;
+
+	private NoteText() {
+	}
+
+	/** The start of {@code text}, ending in an ellipsis if it was cut. */
+	public static String preview(String text) {
+		if (text == null || text.length() <= PREVIEW_LENGTH) {
+			return text;
+		}
+		int end = PREVIEW_LENGTH - 1;
+		// don't leave half a surrogate pair at the end
+		if (Character.isHighSurrogate(text.charAt(end - 1))) {
+			end--;
+		}
+		return text.substring(0, end) + '…';
+	}
+
+	public static byte[] compress(String text) {
+		if (text == null) {
+			return null;
+		}
+		byte[] utf8 = text.getBytes(StandardCharsets.UTF_8);
+		byte[] out = new byte[utf8.length + 6];
+		out[0] = DEFLATE;
+		int start = 1 + writeLength(out, 1, utf8.length);
+		Deflater deflater = new Deflater();
+		try {
+			deflater.setInput(utf8);
+			deflater.finish();
+			int length = deflater.deflate(out, start, out.length - start);
+			// not finished means it didn't fit in the length of the text, so it didn't help
+			if (deflater.finished() && length < utf8.length) {
+				return Arrays.copyOf(out, start + length);
+			}
+		} finally {
+			deflater.end();
+		}
+		out[0] = NO;
+		System.arraycopy(utf8, 0, out, start, utf8.length);
+		return Arrays.copyOf(out, start + utf8.length);
+	}
+
+	public static String expand(byte[] stored) {
+		if (stored == null) {
+			return null;
+		}
+		int length = readLength(stored, 1);
+		int start = 1 + lengthOfLength(length);
+		if (stored[0] == NO) {
+			return new String(stored, start, length, StandardCharsets.UTF_8);
+		}
+		if (stored[0] != DEFLATE) {
+			throw new IllegalArgumentException("Unsupported compression algorithm " + stored[0]);
+		}
+		byte[] utf8 = new byte[length];
+		Inflater inflater = new Inflater();
+		try {
+			inflater.setInput(stored, start, stored.length - start);
+			int read = 0;
+			while (read < length && !inflater.finished()) {
+				int n = inflater.inflate(utf8, read, length - read);
+				if (n == 0 && inflater.needsInput()) {
+					break;
+				}
+				read += n;
+			}
+			if (read != length) {
+				throw new IllegalArgumentException("Compressed text is truncated");
+			}
+		} catch (DataFormatException e) {
+			throw new IllegalArgumentException("Compressed text is corrupt", e);
+		} finally {
+			inflater.end();
+		}
+		return new String(utf8, StandardCharsets.UTF_8);
+	}
+
+	/** H2 {@code CompressTool}'s layout: the high bits of the first byte tell how many follow. */
+	private static int writeLength(byte[] out, int pos, int x) {
+		if (x < 0x80) {
+			out[pos] = (byte) x;
+			return 1;
+		}
+		if (x < 0x4000) {
+			out[pos] = (byte) ((x >> 8) | 0x80);
+			out[pos + 1] = (byte) x;
+			return 2;
+		}
+		if (x < 0x20_0000) {
+			out[pos] = (byte) ((x >> 16) | 0xc0);
+			out[pos + 1] = (byte) (x >> 8);
+			out[pos + 2] = (byte) x;
+			return 3;
+		}
+		if (x < 0x1000_0000) {
+			out[pos] = (byte) ((x >> 24) | 0xe0);
+			out[pos + 1] = (byte) (x >> 16);
+			out[pos + 2] = (byte) (x >> 8);
+			out[pos + 3] = (byte) x;
+			return 4;
+		}
+		out[pos] = (byte) 0xf0;
+		out[pos + 1] = (byte) (x >> 24);
+		out[pos + 2] = (byte) (x >> 16);
+		out[pos + 3] = (byte) (x >> 8);
+		out[pos + 4] = (byte) x;
+		return 5;
+	}
+
+	private static int readLength(byte[] in, int pos) {
+		int x = in[pos] & 0xff;
+		if (x < 0x80) {
+			return x;
+		}
+		if (x < 0xc0) {
+			return ((x & 0x3f) << 8) | (in[pos + 1] & 0xff);
+		}
+		if (x < 0xe0) {
+			return ((x & 0x1f) << 16) | ((in[pos + 1] & 0xff) << 8) | (in[pos + 2] & 0xff);
+		}
+		if (x < 0xf0) {
+			return ((x & 0xf) << 24) | ((in[pos + 1] & 0xff) << 16) | ((in[pos + 2] & 0xff) << 8)
+					| (in[pos + 3] & 0xff);
+		}
+		return ((in[pos + 1] & 0xff) << 24) | ((in[pos + 2] & 0xff) << 16) | ((in[pos + 3] & 0xff) << 8)
+				| (in[pos + 4] & 0xff);
+	}
+
+	private static int lengthOfLength(int x) {
+		return x < 0x80 ? 1 : x < 0x4000 ? 2 : x < 0x20_0000 ? 3 : x < 0x1000_0000 ? 4 : 5;
+	}
+
+}
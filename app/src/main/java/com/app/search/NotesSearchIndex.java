@@ -0,0 +1,279 @@
+package com.app.search;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.app.dao.NotesDao;
+import com.app.event.NoteChangedEvent;
+import com.app.model.Note;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * In-process inverted index over note titles and texts.
+ * <p>
+ * Text is split on anything that is not a letter or digit and lower-cased.
+ * Each term maps to the ids of the notes containing it, and each note keeps its
+ * own term frequencies so it can be re-indexed or removed without going back to
+ * the database. The index is filled from the table once at startup and then
+ * kept current from {@link NoteChangedEvent}s after their transaction commits.
+ * Until the initial build finishes {@link #isReady()} is false and callers are
+ * expected to fall back to a database scan.
+ */
+@Component
+public class NotesSearchIndex {
+
+	private static final Logger log = LoggerFactory.getLogger(NotesSearchIndex.class);
+
+	/** A term found in the title counts this many times a term found in the text. */
+	static final int TITLE_WEIGHT = 3;
+
+	private final ConcurrentHashMap<String, Set<Long>> postings = new ConcurrentHashMap<>();
+
+	/** Sorted view of the terms in {@link #postings}, for prefix lookups. */
+	private final ConcurrentSkipListSet<String> terms = new ConcurrentSkipListSet<>();
+
+	private final ConcurrentHashMap<Long, IndexedNote> notes = new ConcurrentHashMap<>();
+
+	/** Ids deleted while the initial build was running, so the build can't resurrect them. */
+	private final Set<Long> deletedWhileBuilding = ConcurrentHashMap.newKeySet();
+
+	private volatile boolean building;
+
+	private volatile boolean ready;
+
+	@Autowired
+	NotesDao notesDao;
+
+	@PersistenceContext
+	EntityManager entityManager;
+
+	@Autowired
+	PlatformTransactionManager transactionManager;
+
+	@Value("${notes.search.index.enabled:true}")
+	boolean enabled;
+
+	record IndexedNote(Map<String, Integer> titleTerms, Map<String, Integer> textTerms) {
+	}
+
+	public boolean isReady() {
+		return ready;
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void buildInBackground() {
+		if (!enabled) {
+			return;
+		}
+		Thread builder = new Thread(this::build, "notes-search-index");
+		builder.setDaemon(true);
+		builder.start();
+	}
+
+	void build() {
+		long start = System.nanoTime();
+		building = true;
+		try {
+			TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+			transaction.setReadOnly(true);
+			transaction.executeWithoutResult(status -> {
+				try (Stream<Note> rows = notesDao.streamAll()) {
+					rows.forEach(note -> {
+						// a change event that arrived during the build is newer than this row
+						if (!deletedWhileBuilding.contains(note.getId()) && !notes.containsKey(note.getId())) {
+							update(note.getId(), note.getTitle(), note.getText());
+						}
+						entityManager.detach(note);
+					});
+				}
+			});
+			ready = true;
+			log.info("Search index built with {} notes and {} terms in {} ms", notes.size(), terms.size(),
+					(System.nanoTime() - start) / 1_000_000);
+		} catch (RuntimeException e) {
+			log.error("Search index build failed, searches will keep scanning the database", e);
+		} finally {
+			building = false;
+			deletedWhileBuilding.clear();
+		}
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	// before NoteChangeCounters moves the list ETags on
+	@Order(Ordered.HIGHEST_PRECEDENCE)
+	public void onNoteChanged(NoteChangedEvent event) {
+		if (!enabled) {
+			return;
+		}
+		switch (event.type()) {
+		case CREATED -> update(event.id(), nullToEmpty(event.title()), nullToEmpty(event.text()));
+		case UPDATED -> update(event.id(), event.title(), event.text());
+		case DELETED -> remove(event.id());
+		}
+	}
+
+	/**
+	 * Indexes a note, replacing whatever was indexed for it before. A
+	 * {@code null} title or text keeps the currently indexed terms for that field.
+	 */
+	public void update(long id, String title, String text) {
+		notes.compute(id, (key, previous) -> {
+			Map<String, Integer> titleTerms = title != null ? tokenize(title)
+					: previous != null ? previous.titleTerms() : Map.of();
+			Map<String, Integer> textTerms = text != null ? tokenize(text)
+					: previous != null ? previous.textTerms() : Map.of();
+
+			Set<String> before = previous == null ? Set.of() : termsOf(previous.titleTerms(), previous.textTerms());
+			Set<String> after = termsOf(titleTerms, textTerms);
+			for (String term : before) {
+				if (!after.contains(term)) {
+					removePosting(term, id);
+				}
+			}
+			for (String term : after) {
+				if (!before.contains(term)) {
+					addPosting(term, id);
+				}
+			}
+			return new IndexedNote(titleTerms, textTerms);
+		});
+	}
+
+	public void remove(long id) {
+		if (building) {
+			deletedWhileBuilding.add(id);
+		}
+		notes.computeIfPresent(id, (key, previous) -> {
+			termsOf(previous.titleTerms(), previous.textTerms()).forEach(term -> removePosting(term, id));
+			return null;
+		});
+	}
+
+	/**
+	 * Returns the ids of notes matching every term of {@code query}, best match
+	 * first. Query terms match indexed terms by prefix, so "spring" also finds
+	 * "springboot". Ties are broken by id so paging is stable.
+	 */
+	public List<Long> search(String query, int offset, int limit) {
+		List<String> queryTerms = new ArrayList<>(tokenize(query).keySet());
+		if (queryTerms.isEmpty()) {
+			return List.of();
+		}
+
+		Map<Long, Integer> scores = null;
+		for (String queryTerm : queryTerms) {
+			Map<Long, Integer> termScores = new HashMap<>();
+			for (String term : terms.subSet(queryTerm, true, queryTerm + Character.MAX_VALUE, true)) {
+				for (Long id : postings.getOrDefault(term, Set.of())) {
+					IndexedNote note = notes.get(id);
+					if (note != null) {
+						int score = TITLE_WEIGHT * note.titleTerms().getOrDefault(term, 0)
+								+ note.textTerms().getOrDefault(term, 0);
+						termScores.merge(id, score, Integer::sum);
+					}
+				}
+			}
+			if (scores == null) {
+				scores = termScores;
+			} else {
+				scores.keySet().retainAll(termScores.keySet());
+				for (Map.Entry<Long, Integer> entry : scores.entrySet()) {
+					entry.setValue(entry.getValue() + termScores.get(entry.getKey()));
+				}
+			}
+			if (scores.isEmpty()) {
+				return List.of();
+			}
+		}
+
+		Map<Long, Integer> ranked = scores;
+		return ranked.keySet().stream()
+				.sorted((a, b) -> ranked.get(a).equals(ranked.get(b)) ? Long.compare(a, b)
+						: Integer.compare(ranked.get(b), ranked.get(a)))
+				.skip(offset).limit(limit).toList();
+	}
+
+	public int size() {
+		return notes.size();
+	}
+
+	static Map<String, Integer> tokenize(String text) {
+		if (text == null || text.isEmpty()) {
+			return Map.of();
+		}
+		Map<String, Integer> frequencies = new HashMap<>();
+		int start = -1;
+		for (int i = 0; i <= text.length(); i++) {
+			boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+			if (wordChar && start < 0) {
+				start = i;
+			} else if (!wordChar && start >= 0) {
+				frequencies.merge(text.substring(start, i).toLowerCase(Locale.ROOT), 1, Integer::sum);
+				start = -1;
+			}
+		}
+		return frequencies;
+	}
+
+	private static Set<String> termsOf(Map<String, Integer> titleTerms, Map<String, Integer> textTerms) {
+		if (titleTerms.isEmpty()) {
+			return textTerms.keySet();
+		}
+		if (textTerms.isEmpty()) {
+			return titleTerms.keySet();
+		}
+		Set<String> all = new HashSet<>(titleTerms.keySet());
+		all.addAll(textTerms.keySet());
+		return all;
+	}
+
+	private void addPosting(String term, long id) {
+		postings.compute(term, (key, ids) -> {
+			if (ids == null) {
+				ids = ConcurrentHashMap.newKeySet();
+				terms.add(term);
+			}
+			ids.add(id);
+			return ids;
+		});
+	}
+
+	private void removePosting(String term, long id) {
+		postings.computeIfPresent(term, (key, ids) -> {
+			ids.remove(id);
+			if (ids.isEmpty()) {
+				terms.remove(term);
+				return null;
+			}
+			return ids;
+		});
+	}
+
+	private static String nullToEmpty(String value) {
+		return value == null ? "" : value;
+	}
+
+}
@@ -1,49 +1,258 @@
 package com.app.service;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Collection;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
-
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import com.app.cache.NoteChangeCounters;
+import com.app.cache.NotesCache;
+import com.app.changes.NoteChange;
+import com.app.changes.NoteChangeLog;
 import com.app.dao.NotesDao;
+import com.app.event.NoteChangedEvent;
+import com.app.exception.InvalidRequestException;
+import com.app.exception.NoteNotFoundException;
+import com.app.exception.NotesOperationException;
+import com.app.ingest.AsyncNoteIngester;
+import com.app.ingest.ImportProgress;
+import com.app.ingest.IngestStatus;
+import com.app.ingest.NoteCsv;
+import com.app.ingest.NoteImporter;
 import com.app.model.Note;
+import com.app.model.NoteETag;
+import com.app.model.NoteSummary;
+import com.app.model.NoteText;
+import com.app.search.NotesSearchIndex;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 
 @Service
+@Timed(value = "notes.service", description = "NotesService calls", histogram = true)
 public class NotesService {
 
+	public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+	public static final String DELETED_COUNT_HEADER = "X-Deleted-Count";
+
+	public static final String PREFER = "Prefer";
+
+	private static final int DELETE_CHUNK_SIZE = 1000;
+
+	private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+	private static final String SAMPLE_NOTES = "sample-notes.ndjson";
+
 	@Autowired
 	NotesDao notesDao;
 
-	public ResponseEntity<List<Note>> getAllNotes() throws Exception {
+	@Autowired
+	ObjectMapper objectMapper;
+
+	@Autowired
+	ApplicationEventPublisher eventPublisher;
+
+	@Autowired
+	NotesSearchIndex searchIndex;
+
+	@Autowired
+	NotesCache notesCache;
+
+	@Autowired
+	NoteChangeCounters changeCounters;
+
+	@Autowired
+	NoteChangeLog changeLog;
+
+	@Autowired
+	TicketIdExtractor ticketIdExtractor;
+
+	@Autowired
+	AsyncNoteIngester asyncNoteIngester;
+
+	@Autowired
+	NoteImporter noteImporter;
+
+	@Autowired
+	MeterRegistry meterRegistry;
+
+	@PersistenceContext
+	EntityManager entityManager;
+
+	@Value("${notes.page.default-size:100}")
+	int defaultPageSize;
+
+	@Value("${notes.page.max-size:1000}")
+	int maxPageSize;
+
+	@Value("${notes.changes.max-wait:PT30S}")
+	Duration maxChangesWait;
+
+	private TransactionTemplate transactionTemplate;
+
+	/** {@code notes.result.size} of each list operation, registered up front rather than looked up per call. */
+	private Map<String, DistributionSummary> resultSizes;
+
+	@PostConstruct
+	void registerMeters() {
+		resultSizes = Stream.of("getAllNotes", "getNotesByUser", "getNotesByTitle", "getNotesByTicketIds",
+				"searchByKeyword").collect(Collectors.toMap(Function.identity(),
+						method -> DistributionSummary.builder("notes.result.size")
+								.description("Notes returned by a list operation").tag("method", method)
+								.publishPercentileHistogram().register(meterRegistry)));
+	}
+
+	@Autowired
+	void setTransactionManager(PlatformTransactionManager transactionManager) {
+		transactionTemplate = new TransactionTemplate(transactionManager);
+		transactionTemplate.setReadOnly(true);
+	}
+
+	public ResponseEntity<List<NoteSummary>> getAllNotes(Long after, Integer limit, WebRequest request) {
 		try {
-			List<Note> notes = new ArrayList<Note>();
+			if (notModified(request, changeCounters.all())) {
+				return new ResponseEntity<>(HttpStatus.NOT_MODIFIED);
+			}
+			int pageSize = pageSize(limit);
 
-			notesDao.findAll().forEach(notes::add);
+			// one extra row tells us whether there is a next page without a count query
+			List<NoteSummary> notes = notesDao.findSummariesAfter(after == null ? 0L : after, pageSize + 1);
+			recordResultSize("getAllNotes", Math.min(notes.size(), pageSize));
 
 			if (notes.isEmpty()) {
 				return new ResponseEntity<>(HttpStatus.NO_CONTENT);
 			}
 
-			return new ResponseEntity<>(notes, HttpStatus.OK);
+			HttpHeaders headers = new HttpHeaders();
+			if (notes.size() > pageSize) {
+				notes = notes.subList(0, pageSize);
+				headers.set(NEXT_CURSOR_HEADER, String.valueOf(notes.get(pageSize - 1).id()));
+			}
+
+			return new ResponseEntity<>(notes, headers, HttpStatus.OK);
 		} catch (Exception e) {
-			throw new Exception("Get all notes failed");
+			throw new NotesOperationException("Get all notes failed", e);
 		}
 	}
 
-	public ResponseEntity<List<Note>> getNotesByUser(String createdBy) throws Exception {
+	public ResponseEntity<StreamingResponseBody> exportNotes() {
+		return export(objectMapper.writerFor(Note.class).withRootValueSeparator("\n"), NDJSON);
+	}
+
+	/** The export as {@link NoteCsv CSV}, which {@link #importNotes} reads back. */
+	public ResponseEntity<StreamingResponseBody> exportNotesAsCsv() {
+		return export(NoteCsv.writer(), NoteCsv.MEDIA_TYPE);
+	}
+
+	private ResponseEntity<StreamingResponseBody> export(ObjectWriter writer, MediaType contentType) {
+		// written out as the response buffer fills rather than a flush per note
+		ObjectWriter rows = writer.without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+				.without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+		// runs on an async MVC thread after the handler returns, so the transaction
+		// holding the cursor open has to be started here rather than by @Transactional
+		StreamingResponseBody body = out -> transactionTemplate.executeWithoutResult(status -> {
+			try (Stream<Note> notes = notesDao.streamAllWithTicketIds();
+					SequenceWriter lines = rows.writeValues(out)) {
+				notes.forEach(note -> {
+					try {
+						lines.write(note);
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+					// keep the persistence context from growing with the table
+					entityManager.detach(note);
+				});
+				lines.flush();
+				if (NDJSON.equals(contentType)) {
+					// the separator only goes between notes
+					out.write('\n');
+				}
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		});
+
+		return ResponseEntity.ok().contentType(contentType).body(body);
+	}
+
+	/**
+	 * Imports NDJSON or CSV as the request body is read, see {@link NoteImporter}.
+	 * The response is NDJSON, an {@link ImportProgress} line every chunk
+	 * committed and a last one once done, so the status is 200 before the
+	 * outcome is known: the last line tells what came of it.
+	 */
+	public ResponseEntity<StreamingResponseBody> importNotes(InputStream in, MediaType contentType) {
+		ObjectReader reader = NoteCsv.MEDIA_TYPE.isCompatibleWith(contentType) ? NoteCsv.reader()
+				: objectMapper.readerFor(Note.class);
+		ObjectWriter writer = objectMapper.writerFor(ImportProgress.class)
+				.without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+		// the request body is still there to read on the async MVC thread
+		StreamingResponseBody body = out -> noteImporter.importNotes(reader, in, progress -> {
+			try {
+				writer.writeValue(out, progress);
+				out.write('\n');
+				// sent as soon as its chunk is committed
+				out.flush();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		});
+
+		return ResponseEntity.ok().contentType(NDJSON).body(body);
+	}
+
+	public ResponseEntity<List<NoteSummary>> getNotesByUser(String createdBy, WebRequest request) {
 		try {
-			List<Note> notes = new ArrayList<Note>();
+			if (notModified(request, changeCounters.byUser(createdBy))) {
+				return new ResponseEntity<>(HttpStatus.NOT_MODIFIED);
+			}
+			List<NoteSummary> notes = new ArrayList<NoteSummary>();
 
-			notesDao.findByCreatedBy(createdBy).forEach(notes::add);
+			notesCache.findByCreatedBy(createdBy).forEach(notes::add);
+			recordResultSize("getNotesByUser", notes.size());
 
 			if (notes.isEmpty()) {
 				return new ResponseEntity<>(HttpStatus.NO_CONTENT);
@@ -51,15 +260,19 @@ public class NotesService {
 
 			return new ResponseEntity<>(notes, HttpStatus.OK);
 		} catch (Exception e) {
-			throw new Exception("Get notes by user failed");
+			throw new NotesOperationException("Get notes by user failed", e);
 		}
 	}
 
-	public ResponseEntity<List<Note>> getNotesByTitle(String title) throws Exception {
+	public ResponseEntity<List<NoteSummary>> getNotesByTitle(String title, WebRequest request) {
 		try {
-			List<Note> notes = new ArrayList<Note>();
+			if (notModified(request, changeCounters.byTitle(title))) {
+				return new ResponseEntity<>(HttpStatus.NOT_MODIFIED);
+			}
+			List<NoteSummary> notes = new ArrayList<NoteSummary>();
 
-			notesDao.findByTitle(title).forEach(notes::add);
+			notesCache.findByTitle(title).forEach(notes::add);
+			recordResultSize("getNotesByTitle", notes.size());
 
 			if (notes.isEmpty()) {
 				return new ResponseEntity<>(HttpStatus.NO_CONTENT);
@@ -67,15 +280,52 @@ public class NotesService {
 
 			return new ResponseEntity<>(notes, HttpStatus.OK);
 		} catch (Exception e) {
-			throw new Exception("Get notes by title failed");
+			throw new NotesOperationException("Get notes by title failed", e);
 		}
 	}
 
-	public ResponseEntity<List<Note>> searchByKeyword(String keyword) throws Exception {
+	public ResponseEntity<List<NoteSummary>> getNotesByTicketIds(Collection<String> ticketIds, WebRequest request) {
+		if (ticketIds.isEmpty() || ticketIds.size() > maxPageSize) {
+			throw new InvalidRequestException("Between 1 and " + maxPageSize + " ticket ids are allowed");
+		}
 		try {
-			List<Note> notes = new ArrayList<Note>();
+			if (notModified(request, changeCounters.all())) {
+				return new ResponseEntity<>(HttpStatus.NOT_MODIFIED);
+			}
+			List<NoteSummary> notes = notesDao.findSummariesByTicketIdIn(ticketIds);
+			recordResultSize("getNotesByTicketIds", notes.size());
 
-			notesDao.searchByTitleContainingOrTextContaining(keyword, keyword).forEach(notes::add);
+			if (notes.isEmpty()) {
+				return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+			}
+
+			return new ResponseEntity<>(notes, HttpStatus.OK);
+		} catch (Exception e) {
+			throw new NotesOperationException("Get notes by ticket id failed", e);
+		}
+	}
+
+	public ResponseEntity<List<NoteSummary>> searchByKeyword(String keyword, Integer offset, Integer limit,
+			WebRequest request) {
+		try {
+			// the database scan ranks differently from the index, so only index results are validated
+			if (searchIndex.isReady() && notModified(request, changeCounters.all())) {
+				return new ResponseEntity<>(HttpStatus.NOT_MODIFIED);
+			}
+			int skip = offset == null ? 0 : Math.max(offset, 0);
+			int pageSize = pageSize(limit);
+			List<NoteSummary> notes;
+
+			if (searchIndex.isReady()) {
+				List<Long> ids = searchIndex.search(keyword, skip, pageSize);
+				Map<Long, NoteSummary> found = notesDao.findSummariesByIdIn(ids).stream()
+						.collect(Collectors.toMap(NoteSummary::id, Function.identity()));
+				// keep the index ranking; drop ids deleted since the index was read
+				notes = ids.stream().map(found::get).filter(Objects::nonNull).toList();
+			} else {
+				notes = notesDao.findSummariesByIdIn(scan(keyword, skip, pageSize));
+			}
+			recordResultSize("searchByKeyword", notes.size());
 
 			if (notes.isEmpty()) {
 				return new ResponseEntity<>(HttpStatus.NO_CONTENT);
@@ -83,104 +333,333 @@ public class NotesService {
 
 			return new ResponseEntity<>(notes, HttpStatus.OK);
 		} catch (Exception e) {
-			throw new Exception("Search notes by keyword failed");
+			throw new NotesOperationException("Search notes by keyword failed", e);
 
 		}
 	}
 
-	public ResponseEntity<Note> addNote(Note note) throws Exception {
+	public ResponseEntity<Note> addNote(Note note) {
 		try {
 			note.setTicketIds(extractTicketIds(note.getText()));
 			notesDao.save(note);
 			return new ResponseEntity<>(note, HttpStatus.CREATED);
 		} catch (Exception e) {
-			throw new Exception("Add note failed");
+			throw new NotesOperationException("Add note failed", e);
 		}
 
 	}
 	
+	public ResponseEntity<?> addNoteAsync(Note note, List<String> prefer) {
+		if (!asyncNoteIngester.isEnabled() || !respondAsync(prefer)) {
+			return addNote(note);
+		}
+		return enqueue(List.of(note));
+	}
+
+	public ResponseEntity<?> addNotesAsync(List<Note> notes, List<String> prefer) {
+		if (!asyncNoteIngester.isEnabled() || !respondAsync(prefer)) {
+			return addNotes(notes);
+		}
+		return enqueue(notes);
+	}
+
+	/**
+	 * Whether the Prefer header values ask for respond-async among their
+	 * preferences, e.g. "respond-async, wait=10" (RFC 7240); any others are
+	 * ignored.
+	 */
+	static boolean respondAsync(List<String> prefer) {
+		for (String value : prefer) {
+			for (String preference : value.split(",")) {
+				String token = preference.split("[;=]", 2)[0].trim();
+				if (token.equalsIgnoreCase("respond-async")) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	private ResponseEntity<IngestStatus> enqueue(List<Note> notes) {
+		Optional<IngestStatus> status = asyncNoteIngester.submit(notes);
+		if (status.isEmpty()) {
+			return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).header(HttpHeaders.RETRY_AFTER, "1").build();
+		}
+		URI location = ServletUriComponentsBuilder.fromCurrentContextPath().path("/api/notes/ingest/{trackingId}")
+				.buildAndExpand(status.get().trackingId()).toUri();
+		return ResponseEntity.accepted().location(location).body(status.get());
+	}
+
+	public ResponseEntity<IngestStatus> getIngestStatus(String trackingId) {
+		return asyncNoteIngester.status(trackingId).map(ResponseEntity::ok)
+				.orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
+	}
+
+	/**
+	 * Entries of the change feed after {@code since}, with the seq to carry on
+	 * from in X-Next-Cursor. Given {@code wait} seconds and nothing new, the
+	 * request is held until a change is committed, or answered 204 once the wait
+	 * is over. A {@code since} the log no longer goes back to is answered 410
+	 * with the current seq: list the notes again, then carry on from that seq.
+	 */
+	public DeferredResult<ResponseEntity<List<NoteChange>>> getChanges(long since, Integer limit, Integer wait) {
+		int pageSize = pageSize(limit);
+		long waitMillis = wait == null ? 0
+				: Math.min(TimeUnit.SECONDS.toMillis(Math.max(wait, 0)), maxChangesWait.toMillis());
+		if (waitMillis == 0 || changeLog.lastSeq() > since) {
+			DeferredResult<ResponseEntity<List<NoteChange>>> result = new DeferredResult<>();
+			result.setResult(changes(since, pageSize));
+			return result;
+		}
+		DeferredResult<ResponseEntity<List<NoteChange>>> result = new DeferredResult<>(waitMillis,
+				() -> noChanges(since));
+		result.onCompletion(changeLog.whenChangedAfter(since, () -> {
+			try {
+				result.setResult(changes(since, pageSize));
+			} catch (RuntimeException e) {
+				result.setErrorResult(e);
+			}
+		}));
+		return result;
+	}
+
+	private ResponseEntity<List<NoteChange>> changes(long since, int pageSize) {
+		try {
+			List<NoteChange> changes = changeLog.readAfter(since, pageSize);
+			// checked after reading: what was read may have been trimmed since it was checked
+			if (since < changeLog.trimmedSeq()) {
+				return ResponseEntity.status(HttpStatus.GONE)
+						.header(NEXT_CURSOR_HEADER, String.valueOf(changeLog.lastSeq())).build();
+			}
+			if (changes.isEmpty()) {
+				return noChanges(since);
+			}
+			return ResponseEntity.ok().header(NEXT_CURSOR_HEADER, String.valueOf(changes.get(changes.size() - 1).seq()))
+					.body(changes);
+		} catch (Exception e) {
+			throw new NotesOperationException("Get changes failed", e);
+		}
+	}
+
+	private static ResponseEntity<List<NoteChange>> noChanges(long since) {
+		return ResponseEntity.noContent().header(NEXT_CURSOR_HEADER, String.valueOf(since)).build();
+	}
+
+	/**
+	 * Answers a conditional GET from the change counters, before anything is
+	 * loaded. Otherwise puts the ETag and Last-Modified on the response the
+	 * caller goes on to build. Stamps are read before the data, so a response
+	 * may be newer than its ETag but never older.
+	 */
+	private static boolean notModified(WebRequest request, NoteChangeCounters.Stamp stamp) {
+		return request.checkNotModified(stamp.eTag(), stamp.lastModified());
+	}
+
+	private void recordResultSize(String method, int size) {
+		resultSizes.get(method).record(size);
+	}
+
 	public Set<String> extractTicketIds(String text) {
-		Pattern pattern = Pattern.compile("[a-zA-Z]{2,4}-[0-9]{5}");
-		
-		Matcher matcher = pattern.matcher(text);
-		return (Set<String>) matcher.results().map(i->i.group()).collect(Collectors.toSet());
+		return ticketIdExtractor.extract(text);
 	}
 
-	public ResponseEntity<List<Note>> addNotes(List<Note> notes) throws Exception {
+	public ResponseEntity<List<Note>> addNotes(List<Note> notes) {
 		try {
-			notesDao.saveAll(notes);
+			for (Note note : notes) {
+				// always new rows; an id in the payload must not overwrite an existing note
+				note.setId(0);
+				note.setTicketIds(extractTicketIds(note.getText()));
+			}
+			notesDao.insertAll(notes);
 			return new ResponseEntity<>(notes, HttpStatus.CREATED);
 		} catch (Exception e) {
-			throw new Exception("Add notes failed");
+			throw new NotesOperationException("Add notes failed", e);
 		}
 	}
 
-	public ResponseEntity<Note> editNote(Note note, Long id) {
-		Optional<Note> noteData = notesDao.findById(id);
+	/**
+	 * A note with its version as the ETag. A matching If-None-Match is answered
+	 * with 304 once the note is read, which is from the cache when it is there.
+	 */
+	public ResponseEntity<Note> getNote(Long id) {
+		// read before the note, so the note is never older than its Last-Modified
+		long lastModified = changeCounters.all().lastModified();
+		return findById(id)
+				.map(note -> ResponseEntity.ok().eTag(NoteETag.of(note.getVersion())).lastModified(lastModified)
+						.body(note))
+				.orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
+	}
+
+	/**
+	 * Replaces a note with a single UPDATE, checked against {@code ifMatch} when
+	 * given. Ticket ids are re-extracted from the new text.
+	 */
+	@Transactional
+	public ResponseEntity<Note> editNote(Note note, Long id, String ifMatch) {
+		if (NoteETag.unmatchable(ifMatch)) {
+			return new ResponseEntity<>(HttpStatus.PRECONDITION_FAILED);
+		}
+		Long expectedVersion = NoteETag.parse(ifMatch);
+
+		int updated = notesDao.replace(id, expectedVersion, note.getTitle(), note.getCreatedBy(), note.getText(),
+				NoteText.preview(note.getText()));
+		if (updated == 0) {
+			return updateFailed(id, ifMatch, expectedVersion);
+		}
+
+		Set<String> ticketIds = extractTicketIds(note.getText());
+		notesDao.replaceTicketIds(id, ticketIds);
+		long version = expectedVersion != null ? expectedVersion + 1 : notesDao.findVersionById(id);
+		eventPublisher.publishEvent(new NoteChangedEvent(NoteChangedEvent.Type.UPDATED, id, note.getTitle(),
+				note.getCreatedBy(), note.getText()));
+
+		Note _note = Note.builder().id(id).version(version).title(note.getTitle()).createdBy(note.getCreatedBy())
+				.text(note.getText()).ticketIds(ticketIds).build();
+		return ResponseEntity.ok().eTag(NoteETag.of(version)).body(_note);
+	}
+
+	/**
+	 * Updates only the fields present in {@code patch}, with a single UPDATE.
+	 * Ticket ids are only re-extracted when the patch carries new text.
+	 */
+	@Transactional
+	public ResponseEntity<Note> patchNote(Note patch, Long id, String ifMatch) {
+		if (NoteETag.unmatchable(ifMatch)) {
+			return new ResponseEntity<>(HttpStatus.PRECONDITION_FAILED);
+		}
+		Long expectedVersion = NoteETag.parse(ifMatch);
+
+		int updated = notesDao.patch(id, expectedVersion, patch.getTitle(), patch.getCreatedBy(), patch.getText(),
+				NoteText.preview(patch.getText()));
+		if (updated == 0) {
+			return updateFailed(id, ifMatch, expectedVersion);
+		}
+
+		if (patch.getText() != null) {
+			notesDao.replaceTicketIds(id, extractTicketIds(patch.getText()));
+		}
+		eventPublisher.publishEvent(new NoteChangedEvent(NoteChangedEvent.Type.UPDATED, id, patch.getTitle(),
+				patch.getCreatedBy(), patch.getText()));
+
+		Note _note = notesDao.findWithTicketIdsByIdIn(List.of(id)).get(0);
+		return ResponseEntity.ok().eTag(NoteETag.of(_note.getVersion())).body(_note);
+	}
 
-		if (noteData.isPresent() && noteData.get().getId() == id) {
-			Note _note = noteData.get();
-			_note.setTitle(note.getTitle());
-			_note.setCreatedBy(note.getCreatedBy());
-			_note.setText(note.getText());
-			return new ResponseEntity<>(notesDao.save(_note), HttpStatus.OK);
-		} else {
-			return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+	/** 412 when If-Match was "*" and there is no note, or the note is at another version; otherwise 404. */
+	private ResponseEntity<Note> updateFailed(Long id, String ifMatch, Long expectedVersion) {
+		if (NoteETag.any(ifMatch) || expectedVersion != null && notesDao.existsById(id)) {
+			return new ResponseEntity<>(HttpStatus.PRECONDITION_FAILED);
 		}
+		return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+	}
+
+	/** The page size asked for, within 1 and {@code notes.page.max-size}; the default when none was. */
+	private int pageSize(Integer limit) {
+		return limit == null ? defaultPageSize : Math.min(Math.max(limit, 1), maxPageSize);
 	}
 
-	public ResponseEntity<HttpStatus> deleteById(Long id) throws Exception {
+	@Transactional
+	public ResponseEntity<HttpStatus> deleteById(Long id) {
+		int deleted;
 		try {
-			notesDao.deleteById(id);
-			return new ResponseEntity<>(HttpStatus.OK);
+			deleted = notesDao.deleteNoteById(id);
 		} catch (Exception e) {
-			throw new Exception("Delete Note By Id failed");
+			throw new NotesOperationException("Delete Note By Id failed", e);
+		}
+		if (deleted == 0) {
+			throw new NoteNotFoundException(id);
 		}
+		// title and createdBy weren't read; caches drop the note from their lists on the next read
+		eventPublisher.publishEvent(new NoteChangedEvent(NoteChangedEvent.Type.DELETED, id, null, null, null));
+		return new ResponseEntity<>(HttpStatus.OK);
 	}
 
 	@Transactional
-	public ResponseEntity<List<Note>> deleteNoteByCreatedBy(String createdBy) throws Exception {
+	public ResponseEntity<List<Note>> deleteNoteByCreatedBy(String createdBy, boolean returnDeleted) {
 		try {
-			List<Note> notes = notesDao.deleteByCreatedBy(createdBy);
-			//throw new Exception("Delete Note By createdBy failed");
+			if (!returnDeleted) {
+				List<Long> ids = notesDao.findIdsByCreatedBy(createdBy);
+				deleteNotes(ids);
+				ids.forEach(id -> eventPublisher
+						.publishEvent(new NoteChangedEvent(NoteChangedEvent.Type.DELETED, id, null, createdBy, null)));
+				return ResponseEntity.noContent().header(DELETED_COUNT_HEADER, String.valueOf(ids.size())).build();
+			}
+			List<Note> notes = notesDao.findWithTicketIdsByCreatedBy(createdBy);
+			deleteNotes(notes.stream().map(Note::getId).toList());
+			notes.forEach(note -> eventPublisher.publishEvent(NoteChangedEvent.deleted(note)));
 			return new ResponseEntity<>(notes, HttpStatus.OK);
 		} catch (Exception e) {
-			throw new Exception("Delete Note By createdBy failed");
+			throw new NotesOperationException("Delete Note By createdBy failed", e);
 		}
 
 	}
 
 	@Transactional
-	public ResponseEntity<List<Note>> deleteNoteByTitle(String title) throws Exception {
+	public ResponseEntity<List<Note>> deleteNoteByTitle(String title, boolean returnDeleted) {
 		try {
-			List<Note> notes = notesDao.deleteByTitle(title);
+			if (!returnDeleted) {
+				List<Long> ids = notesDao.findIdsByTitle(title);
+				deleteNotes(ids);
+				ids.forEach(id -> eventPublisher
+						.publishEvent(new NoteChangedEvent(NoteChangedEvent.Type.DELETED, id, title, null, null)));
+				return ResponseEntity.noContent().header(DELETED_COUNT_HEADER, String.valueOf(ids.size())).build();
+			}
+			List<Note> notes = notesDao.findWithTicketIdsByTitle(title);
+			deleteNotes(notes.stream().map(Note::getId).toList());
+			notes.forEach(note -> eventPublisher.publishEvent(NoteChangedEvent.deleted(note)));
 			return new ResponseEntity<>(notes, HttpStatus.OK);
 		} catch (Exception e) {
-			e.printStackTrace();
-			throw new Exception("Delete note by title failed");
+			throw new NotesOperationException("Delete note by title failed", e);
 		}
 
 	}
 
-	public ResponseEntity<List<Note>> load() {
-	/*	List<Note> notes = new ArrayList<>(List.of(new Note(3, "Not spring related", "Chen", "Management Fundamentals"),
-				new Note(4, "Not spring related", "Amit", "Cooking Classes Onine"),
-				new Note(5, "title3", "Josh", "Spring MVC Notes"),
-				new Note(6, "title4", "Emily", "Spring Security Fundamentals"),
-				new Note(7, "title5", "Ella", "Spring Boot Fundamentals")));
-*/
-		List<Note> notes = new ArrayList<>();
-		try {
-			notesDao.saveAll(notes);
-			return new ResponseEntity<>(notes, HttpStatus.CREATED);
-		} catch (Exception e) {
-			return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+	/**
+	 * Ids of the notes whose title or text contains {@code keyword}, ignoring
+	 * case, in id order. The text is compressed in the database, so this reads
+	 * every note until the page is full. Only used while the in-memory search
+	 * index is still being built.
+	 */
+	private List<Long> scan(String keyword, int skip, int pageSize) {
+		String needle = keyword.toLowerCase(Locale.ROOT);
+		return transactionTemplate.execute(status -> {
+			try (Stream<Note> notes = notesDao.streamAll()) {
+				// keep the persistence context from growing with the table
+				return notes.peek(entityManager::detach)
+						.filter(note -> contains(note.getTitle(), needle) || contains(note.getText(), needle))
+						.skip(skip).limit(pageSize).map(Note::getId).toList();
+			}
+		});
+	}
+
+	private static boolean contains(String value, String needle) {
+		return value != null && value.toLowerCase(Locale.ROOT).contains(needle);
+	}
+
+	/**
+	 * Set-based delete by id, a bounded IN list at a time. Hibernate removes the
+	 * ticket id rows in the same pass. Bulk deletes skip the entity listener, so
+	 * callers publish the {@link NoteChangedEvent}s themselves.
+	 */
+	private void deleteNotes(List<Long> ids) {
+		for (int from = 0; from < ids.size(); from += DELETE_CHUNK_SIZE) {
+			notesDao.deleteAllByIdInBatch(ids.subList(from, Math.min(from + DELETE_CHUNK_SIZE, ids.size())));
 		}
+	}
 
+	/** Imports the sample notes bundled with the app. */
+	public ResponseEntity<ImportProgress> load() {
+		try (InputStream in = new ClassPathResource(SAMPLE_NOTES).getInputStream()) {
+			ImportProgress done = noteImporter.importNotes(objectMapper.readerFor(Note.class), in, progress -> {
+			});
+			return new ResponseEntity<>(done, HttpStatus.CREATED);
+		} catch (IOException e) {
+			throw new NotesOperationException("Load sample notes failed", e);
+		}
 	}
 
 	public Optional<Note> findById(Long id) {
-		return notesDao.findById(id);
+		return notesCache.findById(id);
 	}
 
 }
@@ -0,0 +1,93 @@
+package com.app.service;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.annotation.Timed;
+
+/**
+ * Finds ticket ids such as {@code ABC-12345} in note text: two to four ASCII
+ * letters, a dash and five digits, the same matches as
+ * {@code [a-zA-Z]{2,4}-[0-9]{5}}.
+ * <p>
+ * Instead of running a regex over the whole text this makes one pass looking
+ * for dashes and only inspects the characters around them, so pasted logs of
+ * several hundred KB cost one scan and a string per ticket found. When
+ * {@code notes.tickets.project-keys} is set only ids whose key is in that list
+ * (ignoring case) are kept.
+ */
+@Component
+public class TicketIdExtractor {
+
+	private static final int MIN_KEY_LENGTH = 2;
+	private static final int MAX_KEY_LENGTH = 4;
+	private static final int NUMBER_LENGTH = 5;
+
+	private final String[] projectKeys;
+
+	public TicketIdExtractor(@Value("${notes.tickets.project-keys:}") String[] projectKeys) {
+		this.projectKeys = Arrays.stream(projectKeys).map(String::trim).filter(key -> !key.isEmpty())
+				.map(key -> key.toUpperCase(Locale.ROOT)).toArray(String[]::new);
+	}
+
+	@Timed(value = "notes.tickets.extract", description = "Ticket id extraction from note text", histogram = true)
+	public Set<String> extract(String text) {
+		Set<String> ticketIds = new HashSet<>();
+		if (text == null) {
+			return ticketIds;
+		}
+
+		int length = text.length();
+		int dash = text.indexOf('-', MIN_KEY_LENGTH);
+		while (dash >= 0 && dash + NUMBER_LENGTH < length) {
+			int keyStart = dash;
+			while (keyStart > 0 && dash - keyStart < MAX_KEY_LENGTH && isAsciiLetter(text.charAt(keyStart - 1))) {
+				keyStart--;
+			}
+
+			int end = dash + 1 + NUMBER_LENGTH;
+			if (dash - keyStart >= MIN_KEY_LENGTH && isNumber(text, dash + 1, end)) {
+				if (isAcceptedKey(text, keyStart, dash - keyStart)) {
+					ticketIds.add(text.substring(keyStart, end));
+				}
+				// matches don't overlap, and the next one can't start inside these digits
+				dash = text.indexOf('-', end);
+			} else {
+				dash = text.indexOf('-', dash + 1);
+			}
+		}
+		return ticketIds;
+	}
+
+	private boolean isAcceptedKey(String text, int start, int length) {
+		if (projectKeys.length == 0) {
+			return true;
+		}
+		for (String key : projectKeys) {
+			if (key.length() == length && text.regionMatches(true, start, key, 0, length)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean isNumber(String text, int start, int end) {
+		for (int i = start; i < end; i++) {
+			char c = text.charAt(i);
+			if (c < '0' || c > '9') {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean isAsciiLetter(char c) {
+		return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+	}
+
+}
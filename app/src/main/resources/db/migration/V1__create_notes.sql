@@ -0,0 +1,25 @@
+-- the schema the app ran with while Hibernate created it (ddl-auto=update) on top of data.sql
+
+-- Note ids are allocated 100 at a time, see the sequence generator on Note
+create sequence note_seq start with 1 increment by 100;
+
+create table note (
+	id bigint not null,
+	title varchar(255),
+	created_by varchar(255),
+	text varchar(5000),
+	version bigint default 0 not null,
+	constraint pk_note primary key (id)
+);
+
+create index idx_note_created_by on note (created_by);
+create index idx_note_title on note (title);
+
+create table note_ticket_ids (
+	note_id bigint not null,
+	ticket_ids varchar(255),
+	constraint fk_note_ticket_ids_note foreign key (note_id) references note (id)
+);
+
+create index idx_note_ticket_ids_note_id on note_ticket_ids (note_id);
+create index idx_note_ticket_ids_ticket_ids on note_ticket_ids (ticket_ids);
@@ -0,0 +1,25 @@
+-- the change feed: one row per committed write to a note, in commit order (see NoteChangeLog)
+
+create table note_change (
+	seq bigint not null,
+	type varchar(16) not null,
+	note_id bigint not null,
+	title varchar(255),
+	created_by varchar(255),
+	changed_at timestamp not null,
+	constraint pk_note_change primary key (seq)
+);
+
+create index idx_note_change_note_id on note_change (note_id, seq);
+create index idx_note_change_changed_at on note_change (changed_at);
+
+-- one row: the last seq handed out, and the highest seq dropped by retention. Writers update it
+-- right before commit, so they take their seqs one transaction after another
+create table note_change_head (
+	id int not null,
+	last_seq bigint not null,
+	trimmed_seq bigint not null,
+	constraint pk_note_change_head primary key (id)
+);
+
+insert into note_change_head (id, last_seq, trimmed_seq) values (1, 0, 0);
@@ -0,0 +1,2 @@
+-- which app instance wrote each change, so replicas following the log can skip their own (see ChangeLogFollower)
+alter table note_change add column node varchar(36);
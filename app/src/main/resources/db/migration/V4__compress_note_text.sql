@@ -0,0 +1,11 @@
+-- note text is stored compressed as a LOB, in the format NoteText writes: H2's own COMPRESS with DEFLATE,
+-- read back with utf8tostring(expand(text)). Lists read the preview instead (see NoteText.preview)
+alter table note add column preview varchar(200);
+alter table note add column text_compressed blob;
+
+update note set
+	preview = case when char_length(text) <= 200 then text else left(text, 199) || U&'\2026' end,
+	text_compressed = compress(stringtoutf8(text), 'DEFLATE');
+
+alter table note drop column text;
+alter table note alter column text_compressed rename to text;
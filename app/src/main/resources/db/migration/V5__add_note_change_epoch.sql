@@ -0,0 +1,3 @@
+-- when this change log began; list ETags carry it with the seq, so a database started afresh, whose seqs count
+-- from 0 again, never hands out an ETag from before (see NoteChangeCounters)
+alter table note_change_head add column started_at timestamp default current_timestamp not null;
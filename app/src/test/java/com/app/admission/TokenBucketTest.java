@@ -0,0 +1,37 @@
+package com.app.admission;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+public class TokenBucketTest {
+
+	private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+	@Test
+	public void burstIsAvailableAtOnceThenTokensComeAtTheRate() {
+		TokenBucket bucket = new TokenBucket(10, 5, 0);
+
+		for (int i = 0; i < 5; i++) {
+			assertEquals(0, bucket.tryAcquire(0));
+		}
+		assertEquals(SECOND / 10, bucket.tryAcquire(0));
+		assertEquals(0, bucket.tryAcquire(SECOND / 10));
+		assertTrue(bucket.tryAcquire(SECOND / 10) > 0);
+	}
+
+	@Test
+	public void idleBucketRefillsOnlyUpToItsBurst() {
+		TokenBucket bucket = new TokenBucket(10, 3, 0);
+
+		int taken = 0;
+		while (bucket.tryAcquire(60 * SECOND) == 0) {
+			taken++;
+		}
+		assertEquals(3, taken);
+	}
+
+}
@@ -0,0 +1,67 @@
+package com.app.exception;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+public class CustomizedResponseEntityExceptionHandlerTest {
+
+	private final CustomizedResponseEntityExceptionHandler handler = new CustomizedResponseEntityExceptionHandler();
+
+	private final WebRequest request = new ServletWebRequest(new MockHttpServletRequest("GET", "/api/notes"));
+
+	@Test
+	public void exceptionWithoutCauseIsAnsweredWithItsOwnMessage() {
+		ResponseEntity<ErrorDetails> response = handler.handleAllExceptions(new IllegalStateException("boom"),
+				request);
+
+		assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+		assertEquals("boom", response.getBody().getError());
+		assertEquals("boom", response.getBody().getMessage());
+	}
+
+	@Test
+	public void failureKeepsItsCause() {
+		IllegalStateException cause = new IllegalStateException("constraint violated");
+		NotesOperationException ex = new NotesOperationException("Add note failed", cause);
+
+		ResponseEntity<ErrorDetails> response = handler.handleNotesException(ex, request);
+
+		assertSame(cause, ex.getCause());
+		assertEquals(0, ex.getStackTrace().length);
+		assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+		assertEquals("constraint violated", response.getBody().getMessage());
+	}
+
+	@Test
+	public void transientDatabaseFailureIsServiceUnavailable() {
+		NotesOperationException ex = new NotesOperationException("Get all notes failed",
+				new QueryTimeoutException("statement timed out"));
+
+		ResponseEntity<ErrorDetails> response = handler.handleNotesException(ex, request);
+
+		assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+		assertEquals("1", response.getHeaders().getFirst("Retry-After"));
+	}
+
+	@Test
+	public void notFoundIsAnsweredWithoutAStackTrace() {
+		NoteNotFoundException ex = new NoteNotFoundException(7L);
+
+		ResponseEntity<ErrorDetails> response = handler.handleNotesException(ex, request);
+
+		assertEquals(0, ex.getStackTrace().length);
+		assertNull(ex.getCause());
+		assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+		assertEquals("Note 7 not found", response.getBody().getError());
+	}
+
+}
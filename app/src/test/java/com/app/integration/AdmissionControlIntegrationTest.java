@@ -0,0 +1,63 @@
+package com.app.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Admission control with budgets small enough to run out of: two searches per
+ * caller, and one bulk request at a time.
+ */
+@SpringBootTest(properties = { "notes.admission.search.rate=0.1", "notes.admission.search.burst=2",
+		"notes.admission.bulk.concurrent=1" })
+@AutoConfigureMockMvc
+public class AdmissionControlIntegrationTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Test
+	public void whenCallerRunsOutOfSearches_thenTooManyRequestsForThatCallerOnly() throws Exception {
+		for (int i = 0; i < 2; i++) {
+			mockMvc.perform(get("/api/notes/search/{keyword}", "spring").header("X-Client-Id", "greedy"))
+					.andExpect(status().is2xxSuccessful());
+		}
+
+		mockMvc.perform(get("/api/notes/search/{keyword}", "spring").header("X-Client-Id", "greedy"))
+				.andExpect(status().isTooManyRequests()).andExpect(header().exists("Retry-After"));
+		mockMvc.perform(get("/api/notes/search/{keyword}", "spring").header("X-Client-Id", "polite"))
+				.andExpect(status().is2xxSuccessful());
+		// reads have their own budget
+		mockMvc.perform(get("/api/notes").header("X-Client-Id", "greedy")).andExpect(status().is2xxSuccessful());
+
+		assertEquals(1, meterRegistry.get("notes.admission.rejected").tag("budget", "search").tag("status", "429")
+				.counter().count());
+	}
+
+	@Test
+	public void whenExportIsStreaming_thenOtherBulkRequestsAreShedUntilItEnds() throws Exception {
+		MvcResult export = mockMvc.perform(get("/api/notes/export")).andExpect(request().asyncStarted()).andReturn();
+
+		mockMvc.perform(get("/api/notes/export")).andExpect(status().isServiceUnavailable())
+				.andExpect(header().string("Retry-After", "1"));
+
+		mockMvc.perform(asyncDispatch(export)).andExpect(status().isOk());
+		mockMvc.perform(get("/api/notes/export")).andExpect(request().asyncStarted());
+	}
+
+}
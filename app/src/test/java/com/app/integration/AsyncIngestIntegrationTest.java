@@ -0,0 +1,116 @@
+package com.app.integration;
+
+import static org.hamcrest.CoreMatchers.hasItem;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.app.dao.NotesDao;
+import com.app.ingest.IngestStatus;
+import com.app.model.Note;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@SpringBootTest(properties = "notes.ingest.async.enabled=true")
+@AutoConfigureMockMvc
+public class AsyncIngestIntegrationTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private NotesDao notesDao;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@BeforeEach
+	void setup() {
+		notesDao.deleteAll();
+	}
+
+	@Test
+	public void givenRespondAsync_whenCreateNotes_thenAcceptAndCommitInBackground() throws Exception {
+		Note note1 = Note.builder().title("Incident").createdBy("oncall").text("Rollback for OPS-12345").build();
+		Note note2 = Note.builder().title("Incident").createdBy("oncall").text("Follow up in OPS-54321").build();
+
+		String body = mockMvc
+				.perform(post("/api/notes/addnotes").header("Prefer", "respond-async")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content(objectMapper.writeValueAsString(List.of(note1, note2))))
+				.andDo(print()).andExpect(status().isAccepted()).andExpect(header().exists("Location"))
+				.andExpect(jsonPath("$.trackingId", notNullValue())).andReturn().getResponse().getContentAsString();
+
+		assertEquals(IngestStatus.State.COMMITTED, await(body).state());
+		mockMvc.perform(get("/api/notes/byuser/{user}", "oncall")).andExpect(status().isOk())
+				.andExpect(jsonPath("$.size()", is(2))).andExpect(jsonPath("$[*].ticketIds[0]", hasItem("OPS-12345")));
+	}
+
+	@Test
+	public void givenNoPreference_whenCreateNote_thenWriteSynchronously() throws Exception {
+		Note note = Note.builder().title("Incident").createdBy("oncall").text("Rollback for OPS-12345").build();
+
+		mockMvc.perform(post("/api/notes").contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(note))).andExpect(status().isCreated())
+				.andExpect(jsonPath("$.ticketIds[0]", is("OPS-12345")));
+	}
+
+	@Test
+	public void givenRespondAsyncAmongPreferences_whenCreateNote_thenAccept() throws Exception {
+		Note note = Note.builder().title("Incident").createdBy("oncall").text("Rollback for OPS-12345").build();
+
+		String body = mockMvc
+				.perform(post("/api/notes").header("Prefer", "return=minimal, Respond-Async; x=1, wait=10")
+						.contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(note)))
+				.andExpect(status().isAccepted()).andExpect(jsonPath("$.trackingId", notNullValue())).andReturn()
+				.getResponse().getContentAsString();
+
+		assertEquals(IngestStatus.State.COMMITTED, await(body).state());
+	}
+
+	@Test
+	public void givenOtherPreferences_whenCreateNote_thenWriteSynchronously() throws Exception {
+		Note note = Note.builder().title("Incident").createdBy("oncall").text("Rollback for OPS-12345").build();
+
+		mockMvc.perform(post("/api/notes").header("Prefer", "return=representation, wait=10")
+				.contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(note)))
+				.andExpect(status().isCreated()).andExpect(jsonPath("$.ticketIds[0]", is("OPS-12345")));
+	}
+
+	@Test
+	public void whenUnknownTrackingId_thenReturnNotFound() throws Exception {
+		mockMvc.perform(get("/api/notes/ingest/{trackingId}", "missing")).andExpect(status().isNotFound());
+	}
+
+	/** Polls the status of the ingest accepted with {@code accepted} until it is no longer queued. */
+	private IngestStatus await(String accepted) throws Exception {
+		String trackingId = objectMapper.readValue(accepted, IngestStatus.class).trackingId();
+		IngestStatus status = null;
+		for (int i = 0; i < 100; i++) {
+			String json = mockMvc.perform(get("/api/notes/ingest/{trackingId}", trackingId)).andExpect(status().isOk())
+					.andReturn().getResponse().getContentAsString();
+			status = objectMapper.readValue(json, IngestStatus.class);
+			if (status.state() != IngestStatus.State.QUEUED) {
+				break;
+			}
+			Thread.sleep(50);
+		}
+		return status;
+	}
+
+}
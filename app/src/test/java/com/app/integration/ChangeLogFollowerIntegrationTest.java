@@ -0,0 +1,161 @@
+package com.app.integration;
+
+import static org.hamcrest.CoreMatchers.endsWith;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.app.changes.ChangeLogFollower;
+import com.app.changes.NoteChangeLog;
+import com.app.dao.NotesDao;
+import com.app.model.Note;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * A replica following writes another node made to the shared database, which
+ * are simulated here by writing the tables and the change log directly. The
+ * follower only polls when a test calls it.
+ */
+@SpringBootTest(properties = { "notes.cluster.enabled=true", "notes.cluster.poll-interval=PT1H" })
+@AutoConfigureMockMvc
+public class ChangeLogFollowerIntegrationTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private NotesDao notesDao;
+
+	@Autowired
+	private NoteChangeLog changeLog;
+
+	@Autowired
+	private ChangeLogFollower follower;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@BeforeEach
+	void setup() {
+		notesDao.deleteAll();
+		follower.poll();
+	}
+
+	@Test
+	public void whenAnotherNodeUpdatesANote_thenCacheSearchAndListETagFollow() throws Exception {
+		Note note = create("Docker", "user1");
+		mockMvc.perform(get("/api/notes/{id}", note.getId())).andExpect(jsonPath("$.title", is("Docker")));
+		String all = mockMvc.perform(get("/api/notes")).andReturn().getResponse().getHeader("ETag");
+
+		long seq = writeElsewhere("update note set title = 'Podman', text = compress(stringtoutf8('Notes on Podman'), 'DEFLATE'),"
+				+ " preview = 'Notes on Podman', version = 1 where id = ?",
+				"UPDATED", note.getId(), "Podman", "user1");
+		// not seen until the node has polled: the note is cached
+		mockMvc.perform(get("/api/notes/{id}", note.getId())).andExpect(jsonPath("$.title", is("Docker")));
+
+		follower.poll();
+
+		assertEquals(seq, changeLog.lastSeq());
+		mockMvc.perform(get("/api/notes/{id}", note.getId())).andExpect(status().isOk())
+				.andExpect(header().string("ETag", "\"1\"")).andExpect(jsonPath("$.title", is("Podman")));
+		mockMvc.perform(get("/api/notes/search/{keyword}", "podman")).andExpect(jsonPath("$.size()", is(1)))
+				.andExpect(jsonPath("$[0].id", is((int) note.getId())));
+		mockMvc.perform(get("/api/notes/search/{keyword}", "docker")).andExpect(status().isNoContent());
+		mockMvc.perform(get("/api/notes").header("If-None-Match", all)).andExpect(status().isOk())
+				.andExpect(header().string("ETag", endsWith("-" + seq + "\"")))
+				.andExpect(jsonPath("$[0].title", is("Podman")));
+	}
+
+	@Test
+	public void whenNotesChange_thenListETagsAreTheSeqsOfTheChangeLog() throws Exception {
+		create("Docker", "user1");
+		long docker = changeLog.lastSeq();
+		Note note = create("Podman", "user2");
+		long podman = changeLog.lastSeq();
+
+		mockMvc.perform(get("/api/notes")).andExpect(header().string("ETag", endsWith("-" + podman + "\"")));
+		mockMvc.perform(get("/api/notes/byuser/{user}", "user1"))
+				.andExpect(header().string("ETag", endsWith("-" + docker + "\"")));
+
+		long seq = writeElsewhere("delete from note where id = ?", "DELETED", note.getId(), "Podman", "user2");
+		follower.poll();
+
+		mockMvc.perform(get("/api/notes")).andExpect(header().string("ETag", endsWith("-" + seq + "\"")))
+				.andExpect(jsonPath("$.size()", is(1)));
+		mockMvc.perform(get("/api/notes/byuser/{user}", "user1"))
+				.andExpect(header().string("ETag", endsWith("-" + docker + "\"")));
+		mockMvc.perform(get("/api/notes/byuser/{user}", "user2"))
+				.andExpect(header().string("ETag", endsWith("-" + seq + "\"")));
+	}
+
+	@Test
+	public void whenAnotherNodeDeletesANote_thenItIsGoneHereToo() throws Exception {
+		Note note = create("Docker", "user1");
+		mockMvc.perform(get("/api/notes/{id}", note.getId())).andExpect(status().isOk());
+
+		writeElsewhere("delete from note where id = ?", "DELETED", note.getId(), "Docker", "user1");
+		follower.poll();
+
+		mockMvc.perform(get("/api/notes/{id}", note.getId())).andExpect(status().isNotFound());
+		mockMvc.perform(get("/api/notes/search/{keyword}", "docker")).andExpect(status().isNoContent());
+	}
+
+	@Test
+	public void whenOnlyThisNodeWrote_thenPollingChangesNothing() throws Exception {
+		Note note = create("Docker", "user1");
+		long seq = changeLog.lastSeq();
+
+		follower.poll();
+
+		assertEquals(seq, changeLog.lastSeq());
+		mockMvc.perform(get("/api/notes/search/{keyword}", "docker")).andExpect(jsonPath("$.size()", is(1)))
+				.andExpect(jsonPath("$[0].id", is((int) note.getId())));
+	}
+
+	/** Runs {@code sql} on the note and logs the change as another node's; returns its seq. */
+	private long writeElsewhere(String sql, String type, long id, String title, String createdBy) {
+		return new TransactionTemplate(transactionManager).execute(status -> {
+			jdbcTemplate.update(sql, id);
+			jdbcTemplate.update("update note_change_head set last_seq = last_seq + 1 where id = 1");
+			long seq = jdbcTemplate.queryForObject("select last_seq from note_change_head where id = 1", Long.class);
+			jdbcTemplate.update("insert into note_change (seq, type, note_id, title, created_by, changed_at, node)"
+					+ " values (?, ?, ?, ?, ?, ?, 'other')", seq, type, id, title, createdBy,
+					Timestamp.from(Instant.now()));
+			return seq;
+		});
+	}
+
+	private Note create(String title, String createdBy) throws Exception {
+		Note note = Note.builder().title(title).createdBy(createdBy).text("Notes on " + title).build();
+		String body = mockMvc
+				.perform(post("/api/notes").contentType(MediaType.APPLICATION_JSON)
+						.content(objectMapper.writeValueAsString(note)))
+				.andExpect(status().isCreated()).andReturn().getResponse().getContentAsString();
+		return objectMapper.readValue(body, Note.class);
+	}
+
+}
@@ -0,0 +1,48 @@
+package com.app.integration;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Checks that the timers, result-size summaries, pool and Hibernate meters
+ * all reach the Prometheus endpoint.
+ */
+@SpringBootTest(properties = "notes.metrics.hibernate.enabled=true")
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+public class MetricsIntegrationTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Test
+	public void whenNotesApiIsCalled_thenPrometheusEndpointExportsItsMeters() throws Exception {
+		mockMvc.perform(post("/api/notes").contentType(MediaType.APPLICATION_JSON)
+				.content("{\"title\":\"Deploy\",\"createdBy\":\"metrics\",\"text\":\"Blocked by OPS-12345\"}"))
+				.andExpect(status().isCreated());
+		mockMvc.perform(get("/api/notes/byuser/{user}", "metrics")).andExpect(status().isOk());
+
+		mockMvc.perform(get("/actuator/prometheus")).andExpect(status().isOk())
+				.andExpect(content().string(containsString("http_server_requests_seconds_bucket")))
+				.andExpect(content().string(containsString("http_server_requests_seconds{")))
+				.andExpect(content().string(containsString("quantile=\"0.99\"")))
+				.andExpect(content().string(containsString("notes_service_seconds_count{class=\"com.app.service.NotesService\"")))
+				.andExpect(content().string(containsString("notes_tickets_extract_seconds_count")))
+				.andExpect(content().string(containsString("notes_result_size_count{method=\"getNotesByUser\"")))
+				.andExpect(content().string(containsString("spring_data_repository_invocations_seconds_bucket")))
+				.andExpect(content().string(containsString("hikaricp_connections_pending")))
+				.andExpect(content().string(containsString("hibernate_statements_total")));
+	}
+
+}
@@ -0,0 +1,174 @@
+package com.app.integration;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.app.changes.NoteChangeLog;
+import com.app.dao.NotesDao;
+import com.app.model.Note;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.servlet.AsyncListener;
+
+/**
+ * The change feed. Seqs carry on across tests, so each test reads from the
+ * last seq when it started. Trimming only runs when a test calls it.
+ */
+@SpringBootTest(properties = { "notes.changes.trim-interval=PT1H", "notes.changes.compact-after=PT0S",
+		"notes.changes.max-entries=3" })
+@AutoConfigureMockMvc
+public class NoteChangeFeedIntegrationTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private NotesDao notesDao;
+
+	@Autowired
+	private NoteChangeLog changeLog;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private long start;
+
+	@BeforeEach
+	void setup() {
+		notesDao.deleteAll();
+		start = changeLog.lastSeq();
+	}
+
+	@Test
+	public void whenNotesChange_thenFeedHasOneEntryPerChangeInOrder() throws Exception {
+		Note note = create("Docker", "user1");
+		mockMvc.perform(post("/api/notes/addnotes").contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(List.of(note("Podman", "user2"), note("Buildah", "user2")))))
+				.andExpect(status().isCreated());
+		mockMvc.perform(put("/api/notes/{id}", note.getId()).contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(note("Docker Notes", "user1")))).andExpect(status().isOk());
+		mockMvc.perform(delete("/api/notes/byuser/{user}", "user2")).andExpect(status().isOk());
+		mockMvc.perform(delete("/api/notes/{id}", note.getId())).andExpect(status().isOk());
+
+		changes(start).andExpect(status().isOk()).andExpect(jsonPath("$.size()", is(7)))
+				.andExpect(jsonPath("$[0].type", is("CREATED"))).andExpect(jsonPath("$[0].title", is("Docker")))
+				.andExpect(jsonPath("$[1].type", is("CREATED"))).andExpect(jsonPath("$[2].type", is("CREATED")))
+				.andExpect(jsonPath("$[3].type", is("UPDATED")))
+				.andExpect(jsonPath("$[3].title", is("Docker Notes")))
+				.andExpect(jsonPath("$[4].type", is("DELETED"))).andExpect(jsonPath("$[5].createdBy", is("user2")))
+				.andExpect(jsonPath("$[6].type", is("DELETED")))
+				.andExpect(jsonPath("$[6].noteId", is((int) note.getId())))
+				.andExpect(header().string("X-Next-Cursor", String.valueOf(start + 7)));
+
+		changes(start + 4, "limit", "1").andExpect(jsonPath("$.size()", is(1)))
+				.andExpect(jsonPath("$[0].seq", is((int) start + 5)))
+				.andExpect(header().string("X-Next-Cursor", String.valueOf(start + 5)));
+		changes(start + 7).andExpect(status().isNoContent())
+				.andExpect(header().string("X-Next-Cursor", String.valueOf(start + 7)));
+	}
+
+	@Test
+	public void whenTransactionRollsBack_thenItsChangesAreNotInTheFeed() {
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			notesDao.saveAndFlush(note("Docker", "user1"));
+			status.setRollbackOnly();
+		});
+
+		assertEquals(start, changeLog.lastSeq());
+		assertEquals(List.of(), changeLog.readAfter(start, 10));
+	}
+
+	@Test
+	public void whenWaitingForChanges_thenAnsweredOnceOneIsCommitted() throws Exception {
+		MvcResult waiting = mockMvc
+				.perform(get("/api/notes/changes").param("since", String.valueOf(start)).param("wait", "10"))
+				.andExpect(request().asyncStarted()).andReturn();
+
+		create("Docker", "user1");
+
+		mockMvc.perform(asyncDispatch(waiting)).andExpect(status().isOk()).andExpect(jsonPath("$.size()", is(1)))
+				.andExpect(jsonPath("$[0].title", is("Docker")));
+	}
+
+	@Test
+	public void whenNothingChangesWhileWaiting_thenNoContent() throws Exception {
+		MvcResult waiting = mockMvc
+				.perform(get("/api/notes/changes").param("since", String.valueOf(start)).param("wait", "1"))
+				.andExpect(request().asyncStarted()).andReturn();
+		// MockMvc has no container to time the request out
+		for (AsyncListener listener : ((MockAsyncContext) waiting.getRequest().getAsyncContext()).getListeners()) {
+			listener.onTimeout(null);
+		}
+
+		mockMvc.perform(asyncDispatch(waiting)).andExpect(status().isNoContent())
+				.andExpect(header().string("X-Next-Cursor", String.valueOf(start)));
+	}
+
+	@Test
+	public void whenLogIsTrimmed_thenReadersBehindItAreGoneAndOthersSeeTheLatestEntries() throws Exception {
+		Note docker = create("Docker", "user1");
+		for (String title : List.of("Docker Notes", "Docker Tips")) {
+			mockMvc.perform(put("/api/notes/{id}", docker.getId()).contentType(MediaType.APPLICATION_JSON)
+					.content(objectMapper.writeValueAsString(note(title, "user1")))).andExpect(status().isOk());
+		}
+		create("Podman", "user2");
+
+		// the oldest of four goes to max-entries, the first edit to compaction
+		changeLog.trim();
+
+		changes(start).andExpect(status().isGone())
+				.andExpect(header().string("X-Next-Cursor", String.valueOf(start + 4)));
+		changes(start + 1).andExpect(status().isOk()).andExpect(jsonPath("$.size()", is(2)))
+				.andExpect(jsonPath("$[0].title", is("Docker Tips"))).andExpect(jsonPath("$[1].title", is("Podman")));
+	}
+
+	/** Changes after {@code since}; answered from a DeferredResult even when there is no wait. */
+	private ResultActions changes(long since, String... params) throws Exception {
+		MockHttpServletRequestBuilder request = get("/api/notes/changes").param("since", String.valueOf(since));
+		for (int i = 0; i < params.length; i += 2) {
+			request.param(params[i], params[i + 1]);
+		}
+		return mockMvc.perform(asyncDispatch(mockMvc.perform(request).andReturn()));
+	}
+
+	private Note create(String title, String createdBy) throws Exception {
+		String body = mockMvc
+				.perform(post("/api/notes").contentType(MediaType.APPLICATION_JSON)
+						.content(objectMapper.writeValueAsString(note(title, createdBy))))
+				.andExpect(status().isCreated()).andReturn().getResponse().getContentAsString();
+		return objectMapper.readValue(body, Note.class);
+	}
+
+	private static Note note(String title, String createdBy) {
+		return Note.builder().title(title).createdBy(createdBy).text("Notes on " + title).build();
+	}
+
+}
@@ -0,0 +1,178 @@
+package com.app.integration;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.app.dao.NotesDao;
+import com.app.ingest.ImportProgress;
+import com.app.model.Note;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Imports commit two notes at a time, so a few records are enough to see
+ * chunks and their progress lines.
+ */
+@SpringBootTest(properties = "notes.import.chunk-size=2")
+@AutoConfigureMockMvc
+public class NoteImportIntegrationTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private NotesDao notesDao;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@BeforeEach
+	void setup() {
+		notesDao.deleteAll();
+	}
+
+	@Test
+	public void whenImportNdjson_thenCommitInChunksAndReportEachBadRecord() throws Exception {
+		String body = """
+				{"title":"Docker","createdBy":"user1","text":"Notes on OPS-12345"}
+				{"title":"D","createdBy":"user1","text":"Title too short"}
+				{"title":"Podman","createdBy":"user2","text":"Notes on Podman"}
+				{"title":{"name":"Buildah"},"createdBy":"user2","text":"Title not a string"}
+
+				{"id":99,"version":7,"title":"Buildah","createdBy":"user3","text":"Notes on Buildah"}
+				""";
+
+		List<ImportProgress> progress = importNotes("application/x-ndjson", body);
+
+		assertEquals(3, progress.size());
+		assertEquals(1, progress.get(0).imported());
+		assertEquals(List.of(2L), progress.get(0).errors().stream().map(ImportProgress.RecordError::line).toList());
+		assertTrue(progress.get(0).errors().get(0).error().startsWith("title size must be"));
+		assertEquals(2, progress.get(1).imported());
+		assertEquals(4, progress.get(1).errors().get(0).line());
+		ImportProgress done = progress.get(2);
+		assertTrue(done.done());
+		assertEquals(3, done.imported());
+		assertEquals(2, done.failed());
+		assertEquals(List.of(), done.errors());
+		assertNull(done.error());
+
+		assertEquals(3, notesDao.count());
+		assertEquals(Set.of("OPS-12345"), notesDao.findWithTicketIdsByTitle("Docker").get(0).getTicketIds());
+		// a new note, whatever the input said
+		Note buildah = notesDao.findWithTicketIdsByTitle("Buildah").get(0);
+		assertEquals(0, buildah.getVersion());
+		mockMvc.perform(get("/api/notes/{id}", buildah.getId())).andExpect(status().isOk())
+				.andExpect(jsonPath("$.text", is("Notes on Buildah")));
+	}
+
+	@Test
+	public void whenInputBreaksOff_thenNotesBeforeItStayCommitted() throws Exception {
+		String body = """
+				{"title":"Docker","createdBy":"user1","text":"Notes on Docker"}
+				{"title":"Podman","createdBy":"user2","text":"Notes on Podman"}
+				{"title":"Buildah","createdBy":"user3",
+				""";
+
+		List<ImportProgress> progress = importNotes("application/x-ndjson", body);
+
+		ImportProgress done = progress.get(progress.size() - 1);
+		assertTrue(done.done());
+		assertEquals(2, done.imported());
+		assertTrue(done.error().startsWith("Unreadable input at line"), done.error());
+		assertEquals(2, notesDao.count());
+	}
+
+	@Test
+	public void whenDatabaseTurnsARecordDown_thenTheRestOfItsChunkIsImported() throws Exception {
+		String body = "{\"title\":\"Docker\",\"createdBy\":\"user1\",\"text\":\"Notes on Docker\"}\n"
+				+ "{\"title\":\"" + "x".repeat(300) + "\",\"createdBy\":\"user1\",\"text\":\"Too long a title\"}\n";
+
+		ImportProgress chunk = importNotes("application/x-ndjson", body).get(0);
+
+		assertEquals(1, chunk.imported());
+		assertEquals(1, chunk.failed());
+		assertEquals(2, chunk.errors().get(0).line());
+		assertEquals(List.of("Docker"), notesDao.findAll().stream().map(Note::getTitle).toList());
+	}
+
+	@Test
+	public void whenExportAsCsv_thenImportReadsItBack() throws Exception {
+		notesDao.saveAll(List.of(
+				Note.builder().title("Incident, part 1").createdBy("oncall").ticketIds(Set.of("OPS-12345"))
+						.text("Rolled back \"canary\" for OPS-12345\nthen paged, twice").build(),
+				Note.builder().title("Incident, part 2").createdBy("oncall").ticketIds(Set.of())
+						.text("Follow up tomorrow").build()));
+
+		MvcResult export = mockMvc.perform(get("/api/notes/export").accept("text/csv"))
+				.andExpect(request().asyncStarted()).andReturn();
+		mockMvc.perform(asyncDispatch(export)).andExpect(status().isOk());
+		String csv = export.getResponse().getContentAsString();
+		assertTrue(csv.startsWith("id,version,title,createdBy,ticketIds,text\n"), csv);
+
+		notesDao.deleteAll();
+		ImportProgress chunk = importNotes("text/csv", csv).get(0);
+
+		assertEquals(2, chunk.imported());
+		assertEquals(0, chunk.failed());
+		Note first = notesDao.findWithTicketIdsByTitle("Incident, part 1").get(0);
+		assertEquals("Rolled back \"canary\" for OPS-12345\nthen paged, twice", first.getText());
+		assertEquals(Set.of("OPS-12345"), first.getTicketIds());
+		assertEquals("Follow up tomorrow", notesDao.findWithTicketIdsByTitle("Incident, part 2").get(0).getText());
+	}
+
+	@Test
+	public void whenCsvHasOnlySomeColumns_thenTheyAreReadByTheHeader() throws Exception {
+		String csv = """
+				text,createdBy,title
+				"Notes on OPS-54321, in short",user1,Docker
+				x,user2,Podman
+				""";
+
+		ImportProgress chunk = importNotes("text/csv", csv).get(0);
+
+		assertEquals(1, chunk.imported());
+		assertEquals(3, chunk.errors().get(0).line());
+		assertEquals(Set.of("OPS-54321"), notesDao.findWithTicketIdsByTitle("Docker").get(0).getTicketIds());
+	}
+
+	@Test
+	public void whenLoad_thenSampleNotesAreImported() throws Exception {
+		mockMvc.perform(get("/api/notes/load")).andExpect(status().isCreated())
+				.andExpect(jsonPath("$.imported", is(5))).andExpect(jsonPath("$.done", is(true)));
+
+		assertEquals(5, notesDao.count());
+	}
+
+	private List<ImportProgress> importNotes(String contentType, String body) throws Exception {
+		MvcResult result = mockMvc.perform(post("/api/notes/import").contentType(contentType).content(body))
+				.andExpect(request().asyncStarted()).andReturn();
+		mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+
+		List<ImportProgress> progress = new ArrayList<>();
+		for (String line : result.getResponse().getContentAsString().split("\n")) {
+			progress.add(objectMapper.readValue(line, ImportProgress.class));
+		}
+		return progress;
+	}
+
+}
@@ -1,40 +1,77 @@
 package com.app.integration;
 
+import com.app.config.ProtobufNotesHttpMessageConverter;
 import com.app.dao.NotesDao;
 import com.app.model.Note;
+import com.app.model.NoteSummary;
+import com.app.model.NoteText;
+import com.app.search.NotesSearchIndex;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
 
+import jakarta.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 import static org.hamcrest.CoreMatchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
-@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+		properties = "spring.jpa.properties.hibernate.generate_statistics=true")
 @AutoConfigureMockMvc
 public class NotesControllerIntegrationTest {
 
+	private static final TypeReference<List<Note>> NOTE_LIST = new TypeReference<>() {
+	};
+
+	private static final TypeReference<List<NoteSummary>> SUMMARY_LIST = new TypeReference<>() {
+	};
+
 	@Autowired
 	private MockMvc mockMvc;
 
 	@Autowired
 	private NotesDao notesDao;
 
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
 	@Autowired
 	private ObjectMapper objectMapper;
 
+	@Autowired
+	private NotesSearchIndex searchIndex;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
 	@BeforeEach
 	void setup() {
 		notesDao.deleteAll();
@@ -71,6 +108,41 @@ public class NotesControllerIntegrationTest {
 
 	}
 
+	@Test
+	public void givenProtobufNotes_whenCreateNotes_thenAnswerInProtobuf() throws Exception {
+		ProtobufNotesHttpMessageConverter protobuf = new ProtobufNotesHttpMessageConverter();
+		List<Note> notes = List.of(Note.builder().title("Docker").createdBy("user1").text("Notes on OPS-12345").build(),
+				Note.builder().title("Podman").createdBy("user2").text("Notes on Podman").build());
+		MockHttpOutputMessage body = new MockHttpOutputMessage();
+		protobuf.write(notes, NOTE_LIST.getType(), ProtobufNotesHttpMessageConverter.PROTOBUF, body);
+
+		byte[] created = mockMvc.perform(post("/api/notes/addnotes").contentType("application/x-protobuf")
+				.accept("application/x-protobuf").content(body.getBodyAsBytes())).andExpect(status().isCreated())
+				.andExpect(header().string("Content-Type", "application/x-protobuf"))
+				.andReturn().getResponse().getContentAsByteArray();
+
+		@SuppressWarnings("unchecked")
+		List<Note> read = (List<Note>) protobuf.read(NOTE_LIST.getType(), null, new MockHttpInputMessage(created));
+		assertEquals(2, read.size());
+		assertEquals(Set.of("OPS-12345"), read.get(0).getTicketIds());
+		assertEquals("user2", read.get(1).getCreatedBy());
+		assertTrue(read.get(0).getId() > 0);
+	}
+
+	@Test
+	public void whenAcceptSmileOrCbor_thenListIsSentInThatFormat() throws Exception {
+		notesDao.save(Note.builder().title("Docker").createdBy("user1").text("Notes on Docker").build());
+
+		byte[] smile = mockMvc.perform(get("/api/notes").accept("application/x-jackson-smile"))
+				.andExpect(status().isOk()).andExpect(header().string("Content-Type", "application/x-jackson-smile"))
+				.andReturn().getResponse().getContentAsByteArray();
+		assertEquals("Docker", new SmileMapper().readValue(smile, SUMMARY_LIST).get(0).title());
+
+		byte[] cbor = mockMvc.perform(get("/api/notes/byuser/{user}", "user1").accept("application/cbor"))
+				.andExpect(status().isOk()).andReturn().getResponse().getContentAsByteArray();
+		assertEquals("Notes on Docker", new CBORMapper().readValue(cbor, SUMMARY_LIST).get(0).preview());
+	}
+
 	@Test
 	public void whenGetAllNotes_thenReturnNotesList() throws Exception {
 		// setup
@@ -87,6 +159,111 @@ public class NotesControllerIntegrationTest {
 
 	}
 
+	@Test
+	public void whenNoteTextIsLong_thenListsShowAPreviewAndGetByIdTheText() throws Exception {
+		String text = "2024-05-01 12:00:00 ERROR Connection refused, retrying OPS-12345\n".repeat(200);
+		Note note = notesDao.save(Note.builder().title("Outage log").createdBy("user1").text(text)
+				.ticketIds(Set.of("OPS-12345")).build());
+
+		mockMvc.perform(get("/api/notes")).andExpect(status().isOk())
+				.andExpect(jsonPath("$[0].preview", is(text.substring(0, NoteText.PREVIEW_LENGTH - 1) + "…")))
+				.andExpect(jsonPath("$[0].ticketIds[0]", is("OPS-12345"))).andExpect(jsonPath("$[0].text").doesNotExist());
+		mockMvc.perform(get("/api/notes/{id}", note.getId())).andExpect(status().isOk())
+				.andExpect(jsonPath("$.text", is(text))).andExpect(jsonPath("$.preview").doesNotExist());
+		byte[] protobuf = mockMvc.perform(get("/api/notes").accept("application/x-protobuf")).andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsByteArray();
+		@SuppressWarnings("unchecked")
+		List<Note> read = (List<Note>) new ProtobufNotesHttpMessageConverter().read(NOTE_LIST.getType(), null,
+				new MockHttpInputMessage(protobuf));
+		assertEquals("Outage log", read.get(0).getTitle());
+		assertEquals(NoteText.preview(text), read.get(0).getPreview());
+		assertNull(read.get(0).getText());
+
+		// stored compressed, in the format the database's own EXPAND reads
+		assertTrue(jdbcTemplate.queryForObject("select octet_length(text) from note where id = ?", Long.class,
+				note.getId()) < text.length() / 10);
+		assertEquals(text, jdbcTemplate.queryForObject("select utf8tostring(expand(text)) from note where id = ?",
+				String.class, note.getId()));
+
+		mockMvc.perform(patch("/api/notes/{id}", note.getId()).contentType(MediaType.APPLICATION_JSON)
+				.content("{\"text\":\"Fixed by a restart\"}")).andExpect(status().isOk());
+		mockMvc.perform(get("/api/notes/byuser/{user}", "user1")).andExpect(jsonPath("$[0].preview",
+				is("Fixed by a restart")));
+	}
+
+	@Test
+	public void whenGetAllNotesWithLimit_thenReturnPageAndNextCursor() throws Exception {
+		// setup
+		Note note1 = Note.builder().title("Not spring related").createdBy("user1").text("Notes on Spring Boot").build();
+		Note note2 = Note.builder().title("Not spring related").createdBy("user2").text("Notes on Spring MVC").build();
+		Note note3 = Note.builder().title("Not spring related").createdBy("user2").text("Notes on Spring Security")
+				.build();
+		notesDao.saveAll(List.of(note1, note2, note3));
+
+		ResultActions firstPage = mockMvc.perform(get("/api/notes").param("limit", "2"));
+
+		firstPage.andExpect(status().isOk()).andDo(print()).andExpect(jsonPath("$.size()", is(2)))
+				.andExpect(jsonPath("$[0].preview", is(note1.getText())))
+				.andExpect(header().string("X-Next-Cursor", String.valueOf(note2.getId())));
+
+		ResultActions lastPage = mockMvc
+				.perform(get("/api/notes").param("after", String.valueOf(note2.getId())).param("limit", "2"));
+
+		lastPage.andExpect(status().isOk()).andDo(print()).andExpect(jsonPath("$.size()", is(1)))
+				.andExpect(jsonPath("$[0].preview", is(note3.getText())))
+				.andExpect(header().doesNotExist("X-Next-Cursor"));
+	}
+
+	@Test
+	public void whenExportNotes_thenStreamOneJsonObjectPerLine() throws Exception {
+		// setup
+		Note note1 = Note.builder().title("Not spring related").createdBy("user1").text("Notes on Spring Boot").build();
+		Note note2 = Note.builder().title("Not spring related").createdBy("user2").text("Notes on Spring MVC").build();
+		notesDao.saveAll(List.of(note1, note2));
+
+		MvcResult result = mockMvc.perform(get("/api/notes/export")).andExpect(request().asyncStarted()).andReturn();
+		mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+
+		String[] lines = result.getResponse().getContentAsString().trim().split("\n");
+		assertEquals(2, lines.length);
+		assertEquals(note1.getText(), objectMapper.readValue(lines[0], Note.class).getText());
+		assertEquals(note2.getText(), objectMapper.readValue(lines[1], Note.class).getText());
+	}
+
+	@Test
+	public void whenListNotesWithTicketIds_thenTicketIdsLoadInOneBatch() throws Exception {
+		awaitSearchIndex();
+		List<Note> notes = new ArrayList<>();
+		for (int i = 0; i < 50; i++) {
+			notes.add(Note.builder().title("Release " + i).createdBy("user1").text("Tracked in OPS-100" + (10 + i))
+					.ticketIds(Set.of("OPS-100" + (10 + i), "ABC-100" + (10 + i))).build());
+		}
+		notesDao.saveAll(notes);
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+		statistics.clear();
+		mockMvc.perform(get("/api/notes")).andExpect(status().isOk()).andExpect(jsonPath("$.size()", is(50)))
+				.andExpect(jsonPath("$[49].ticketIds.size()", is(2)));
+		// the page with every note's ticket ids joined in
+		assertEquals(1, statistics.getPrepareStatementCount());
+
+		statistics.clear();
+		mockMvc.perform(get("/api/notes/search/{keyword}", "release")).andExpect(status().isOk())
+				.andExpect(jsonPath("$.size()", is(50))).andExpect(jsonPath("$[0].ticketIds.size()", is(2)));
+		assertEquals(1, statistics.getPrepareStatementCount());
+
+		statistics.clear();
+		mockMvc.perform(get("/api/notes/byuser/{user}", "user1")).andExpect(status().isOk())
+				.andExpect(jsonPath("$.size()", is(50))).andExpect(jsonPath("$[0].ticketIds.size()", is(2)));
+		assertEquals(1, statistics.getPrepareStatementCount());
+
+		statistics.clear();
+		MvcResult export = mockMvc.perform(get("/api/notes/export")).andReturn();
+		mockMvc.perform(asyncDispatch(export)).andExpect(status().isOk());
+		assertEquals(50, export.getResponse().getContentAsString().trim().split("\\n").length);
+		assertEquals(1, statistics.getPrepareStatementCount());
+	}
+
 	// positive scenario - valid note user
 	@Test
 	public void whenGetNoteByUser_thenReturnNoteObject() throws Exception {
@@ -99,8 +276,27 @@ public class NotesControllerIntegrationTest {
 		response.andExpect(status().isOk()).andDo(print()).andExpect(jsonPath("$.size()", is(1)))
 				.andExpect(jsonPath("$[0].title", is(note1.getTitle())))
 				.andExpect(jsonPath("$[0].createdBy", is(note1.getCreatedBy())))
-				.andExpect(jsonPath("$[0].text", is(note1.getText())));
+				.andExpect(jsonPath("$[0].preview", is(note1.getText())));
+
+	}
 
+	@Test
+	public void whenEditNoteAfterCachedRead_thenListsReflectTheEdit() throws Exception {
+		Note note1 = Note.builder().title("Docker").createdBy("user1").text("Notes on Docker").build();
+		Note note2 = Note.builder().title("Podman").createdBy("user1").text("Notes on Podman").build();
+		notesDao.saveAll(List.of(note1, note2));
+		mockMvc.perform(get("/api/notes/byuser/{user}", "user1")).andExpect(jsonPath("$.size()", is(2)));
+		mockMvc.perform(get("/api/notes/bytitle/{title}", "Docker")).andExpect(jsonPath("$.size()", is(1)));
+
+		Note movedNote = Note.builder().title("Containers").createdBy("user2").text("Notes on containerd").build();
+		mockMvc.perform(put("/api/notes/{id}", note1.getId()).contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(movedNote))).andExpect(status().isOk());
+
+		mockMvc.perform(get("/api/notes/byuser/{user}", "user1")).andExpect(status().isOk())
+				.andExpect(jsonPath("$.size()", is(1))).andExpect(jsonPath("$[0].title", is("Podman")));
+		mockMvc.perform(get("/api/notes/byuser/{user}", "user2")).andExpect(status().isOk())
+				.andExpect(jsonPath("$[0].preview", is(movedNote.getText())));
+		mockMvc.perform(get("/api/notes/bytitle/{title}", "Docker")).andExpect(status().isNoContent());
 	}
 
 	// negative scenario - note user has no notes
@@ -130,11 +326,104 @@ public class NotesControllerIntegrationTest {
 
 		ResultActions response = mockMvc.perform(get("/api/notes/search/{keyword}", "spring"));
 
-		response.andExpect(status().isOk()).andDo(print()).andExpect(jsonPath("$.size()", is(2)))
+		// case-insensitive, title matches ranked first
+		response.andExpect(status().isOk()).andDo(print()).andExpect(jsonPath("$.size()", is(4)))
 				.andExpect(jsonPath("$[0].title", is(note1.getTitle())))
 				.andExpect(jsonPath("$[0].createdBy", is(note1.getCreatedBy())))
-				.andExpect(jsonPath("$[0].text", is(note1.getText())));
+				.andExpect(jsonPath("$[0].preview", is(note1.getText())))
+				.andExpect(jsonPath("$[2].title", is(note3.getTitle())));
+
+	}
+
+	@Test
+	public void whenSearchNoteWithOffsetAndLimit_thenReturnThatPage() throws Exception {
+		Note note1 = Note.builder().title("Not spring related").createdBy("user1").text("Notes on Docker").build();
+		Note note2 = Note.builder().title("Not spring related").createdBy("user1").text("Notes on kubernetes").build();
+		Note note3 = Note.builder().title("MVC").createdBy("user2").text("Notes on Spring MVC").build();
+		notesDao.saveAll(List.of(note1, note2, note3));
+
+		ResultActions response = mockMvc
+				.perform(get("/api/notes/search/{keyword}", "spring").param("offset", "1").param("limit", "1"));
+
+		response.andExpect(status().isOk()).andDo(print()).andExpect(jsonPath("$.size()", is(1)))
+				.andExpect(jsonPath("$[0].preview", is(note2.getText())));
+	}
+
+	@Test
+	public void whenEditAndDeleteNote_thenSearchReflectsChanges() throws Exception {
+		awaitSearchIndex();
+		Note note1 = Note.builder().title("Docker").createdBy("user1").text("Notes on Docker").build();
+		Note note2 = Note.builder().title("Podman").createdBy("user1").text("Notes on Podman").build();
+		notesDao.saveAll(List.of(note1, note2));
+
+		Note updatedNote = Note.builder().title("Containers").createdBy("user1").text("Notes on containerd").build();
+		mockMvc.perform(put("/api/notes/{id}", note1.getId()).contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(updatedNote))).andExpect(status().isOk());
+		mockMvc.perform(delete("/api/notes/{id}", note2.getId())).andExpect(status().isOk());
+
+		mockMvc.perform(get("/api/notes/search/{keyword}", "docker")).andExpect(status().isNoContent());
+		mockMvc.perform(get("/api/notes/search/{keyword}", "podman")).andExpect(status().isNoContent());
+		mockMvc.perform(get("/api/notes/search/{keyword}", "containerd")).andExpect(status().isOk())
+				.andExpect(jsonPath("$.size()", is(1))).andExpect(jsonPath("$[0].title", is("Containers")));
+	}
 
+	@Test
+	public void whenEditNoteLeavesOutText_thenRejectAndSearchStillFindsIt() throws Exception {
+		awaitSearchIndex();
+		Note note = Note.builder().title("Docker").createdBy("user1").text("Notes on Docker").build();
+		notesDao.save(note);
+
+		Note cleared = Note.builder().title("Docker").createdBy("user1").build();
+		mockMvc.perform(put("/api/notes/{id}", note.getId()).contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(cleared))).andExpect(status().isBadRequest());
+		Note untitled = Note.builder().createdBy("user1").text("Notes on containerd").build();
+		mockMvc.perform(put("/api/notes/{id}", note.getId()).contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(untitled))).andExpect(status().isBadRequest());
+
+		mockMvc.perform(get("/api/notes/search/{keyword}", "docker")).andExpect(status().isOk())
+				.andExpect(jsonPath("$.size()", is(1))).andExpect(jsonPath("$[0].preview", is("Notes on Docker")));
+		mockMvc.perform(get("/api/notes/search/{keyword}", "containerd")).andExpect(status().isNoContent());
+	}
+
+	private void awaitSearchIndex() throws InterruptedException {
+		for (int i = 0; i < 100 && !searchIndex.isReady(); i++) {
+			Thread.sleep(50);
+		}
+		assertTrue(searchIndex.isReady());
+	}
+
+	@Test
+	public void whenGetNotesByTicketId_thenReturnNotesMentioningIt() throws Exception {
+		Note note1 = Note.builder().title("Outage").createdBy("user1").text("Root cause in OPS-12345").build();
+		Note note2 = Note.builder().title("Retro").createdBy("user2").text("Follow ups OPS-12345 and ABC-54321")
+				.build();
+		Note note3 = Note.builder().title("Other").createdBy("user2").text("Unrelated XYZ-11111").build();
+		for (Note note : List.of(note1, note2, note3)) {
+			mockMvc.perform(post("/api/notes").contentType(MediaType.APPLICATION_JSON)
+					.content(objectMapper.writeValueAsString(note))).andExpect(status().isCreated());
+		}
+
+		mockMvc.perform(get("/api/notes/byticket/{ticketId}", "OPS-12345")).andDo(print())
+				.andExpect(status().isOk()).andExpect(jsonPath("$.size()", is(2)))
+				.andExpect(jsonPath("$[0].title", is("Outage"))).andExpect(jsonPath("$[1].ticketIds.size()", is(2)));
+		mockMvc.perform(get("/api/notes/byticket").param("ids", "ABC-54321", "XYZ-11111")).andExpect(status().isOk())
+				.andExpect(jsonPath("$.size()", is(2))).andExpect(jsonPath("$[0].title", is("Retro")));
+		mockMvc.perform(get("/api/notes/byticket/{ticketId}", "NOPE-00000")).andExpect(status().isNoContent());
+	}
+
+	@Test
+	public void whenEditNoteText_thenTicketLookupFollows() throws Exception {
+		Note note = Note.builder().title("Outage").createdBy("user1").text("Root cause in OPS-12345").build();
+		notesDao.save(note);
+
+		Note updatedNote = Note.builder().title("Outage").createdBy("user1").text("Actually caused by DB-99999")
+				.build();
+		mockMvc.perform(put("/api/notes/{id}", note.getId()).contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(updatedNote))).andExpect(status().isOk());
+
+		mockMvc.perform(get("/api/notes/byticket/{ticketId}", "OPS-12345")).andExpect(status().isNoContent());
+		mockMvc.perform(get("/api/notes/byticket/{ticketId}", "DB-99999")).andExpect(status().isOk())
+				.andExpect(jsonPath("$.size()", is(1)));
 	}
 
 	@Test
@@ -169,6 +458,111 @@ public class NotesControllerIntegrationTest {
 		response.andExpect(status().is4xxClientError()).andExpect(status().isNotFound()).andDo(print());
 	}
 
+	@Test
+	public void whenGetNote_thenReturnNoteWithVersionETag() throws Exception {
+		Note note1 = Note.builder().title("Docker").createdBy("user1").text("Notes on Docker").build();
+		notesDao.save(note1);
+
+		mockMvc.perform(get("/api/notes/{id}", note1.getId())).andExpect(status().isOk())
+				.andExpect(header().string("ETag", "\"0\"")).andExpect(jsonPath("$.text", is(note1.getText())));
+		mockMvc.perform(get("/api/notes/{id}", note1.getId() + 1000)).andExpect(status().isNotFound());
+	}
+
+	@Test
+	public void whenListUnchanged_thenIfNoneMatchReturnsNotModified() throws Exception {
+		notesDao.saveAll(List.of(Note.builder().title("Docker").createdBy("user1").text("Notes on Docker").build(),
+				Note.builder().title("Podman").createdBy("user2").text("Notes on Podman").build()));
+		String all = mockMvc.perform(get("/api/notes")).andExpect(status().isOk())
+				.andExpect(header().exists("Last-Modified")).andReturn().getResponse().getHeader("ETag");
+		String user1 = mockMvc.perform(get("/api/notes/byuser/{user}", "user1")).andExpect(status().isOk())
+				.andReturn().getResponse().getHeader("ETag");
+		mockMvc.perform(get("/api/notes").header("If-None-Match", all)).andExpect(status().isNotModified());
+		mockMvc.perform(get("/api/notes/byuser/{user}", "user1").header("If-None-Match", user1))
+				.andExpect(status().isNotModified());
+
+		Note note3 = Note.builder().title("Buildah").createdBy("user2").text("Notes on Buildah").build();
+		mockMvc.perform(post("/api/notes").contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(note3))).andExpect(status().isCreated());
+
+		// another user's note only changes the table's ETag
+		mockMvc.perform(get("/api/notes/byuser/{user}", "user1").header("If-None-Match", user1))
+				.andExpect(status().isNotModified());
+		mockMvc.perform(get("/api/notes").header("If-None-Match", all)).andExpect(status().isOk())
+				.andExpect(jsonPath("$.size()", is(3)));
+	}
+
+	@Test
+	public void whenGetNoteWithCurrentVersion_thenReturnNotModified() throws Exception {
+		Note note1 = Note.builder().title("Docker").createdBy("user1").text("Notes on Docker").build();
+		notesDao.save(note1);
+
+		mockMvc.perform(get("/api/notes/{id}", note1.getId()).header("If-None-Match", "\"0\""))
+				.andExpect(status().isNotModified());
+		mockMvc.perform(get("/api/notes/{id}", note1.getId()).header("If-None-Match", "\"7\""))
+				.andExpect(status().isOk());
+	}
+
+	@Test
+	public void whenEditNoteWithStaleIfMatch_thenReturnPreconditionFailed() throws Exception {
+		Note savedNote = Note.builder().title("Docker").createdBy("user1").text("Notes on Docker").build();
+		notesDao.save(savedNote);
+		Note updatedNote = Note.builder().title("Docker Notes").createdBy("user1").text("Notes on Docker, OPS-12345")
+				.build();
+
+		mockMvc.perform(put("/api/notes/{id}", savedNote.getId()).header("If-Match", "\"0\"")
+				.contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(updatedNote)))
+				.andExpect(status().isOk()).andExpect(header().string("ETag", "\"1\""))
+				.andExpect(jsonPath("$.ticketIds[0]", is("OPS-12345")));
+
+		mockMvc.perform(put("/api/notes/{id}", savedNote.getId()).header("If-Match", "\"0\"")
+				.contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(updatedNote)))
+				.andExpect(status().isPreconditionFailed());
+		assertEquals(1, notesDao.findById(savedNote.getId()).get().getVersion());
+	}
+
+	@Test
+	public void whenEditNoteWithWeakIfMatch_thenReturnPreconditionFailed() throws Exception {
+		Note savedNote = Note.builder().title("Docker").createdBy("user1").text("Notes on Docker").build();
+		notesDao.save(savedNote);
+		Note updatedNote = Note.builder().title("Docker Notes").createdBy("user1").text("Notes on Docker").build();
+
+		// If-Match compares strongly, so the weak form of the current ETag doesn't match
+		mockMvc.perform(put("/api/notes/{id}", savedNote.getId()).header("If-Match", "W/\"0\"")
+				.contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(updatedNote)))
+				.andExpect(status().isPreconditionFailed());
+		mockMvc.perform(patch("/api/notes/{id}", savedNote.getId()).header("If-Match", "W/\"0\"")
+				.contentType(MediaType.APPLICATION_JSON).content("{\"title\":\"Docker Notes\"}"))
+				.andExpect(status().isPreconditionFailed());
+		assertEquals(0, notesDao.findById(savedNote.getId()).get().getVersion());
+	}
+
+	@Test
+	public void whenEditMissingNoteWithIfMatchAny_thenReturnPreconditionFailed() throws Exception {
+		Note updatedNote = Note.builder().title("Docker Notes").createdBy("user1").text("Notes on Docker").build();
+
+		mockMvc.perform(put("/api/notes/{id}", 12345L).header("If-Match", "*").contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(updatedNote))).andExpect(status().isPreconditionFailed());
+		mockMvc.perform(put("/api/notes/{id}", 12345L).contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(updatedNote))).andExpect(status().isNotFound());
+	}
+
+	@Test
+	public void whenPatchNote_thenOnlyGivenFieldsChange() throws Exception {
+		Note savedNote = Note.builder().title("Docker").createdBy("user1").text("Notes on Docker, OPS-12345")
+				.ticketIds(Set.of("OPS-12345")).build();
+		notesDao.save(savedNote);
+
+		mockMvc.perform(patch("/api/notes/{id}", savedNote.getId()).contentType("application/merge-patch+json")
+				.content("{\"title\":\"Docker Notes\"}")).andExpect(status().isOk())
+				.andExpect(header().string("ETag", "\"1\"")).andExpect(jsonPath("$.title", is("Docker Notes")))
+				.andExpect(jsonPath("$.createdBy", is("user1")))
+				.andExpect(jsonPath("$.text", is(savedNote.getText())))
+				.andExpect(jsonPath("$.ticketIds[0]", is("OPS-12345")));
+
+		mockMvc.perform(get("/api/notes/bytitle/{title}", "Docker Notes")).andExpect(status().isOk())
+				.andExpect(jsonPath("$.size()", is(1)));
+	}
+
 	@Test
 	public void whenDeleteNote_thenReturn200() throws Exception {
 		Note note1 = Note.builder().title("Not spring related").createdBy("user1").text("Notes on Spring Boot").build();
@@ -179,6 +573,23 @@ public class NotesControllerIntegrationTest {
 		response.andExpect(status().isOk()).andDo(print());
 	}
 
+	@Test
+	public void whenDeleteMissingNote_thenReturnNotFoundWithErrorDetails() throws Exception {
+		mockMvc.perform(delete("/api/notes/{id}", 4242)).andExpect(status().isNotFound())
+				.andExpect(jsonPath("$.error", is("Note 4242 not found")))
+				.andExpect(jsonPath("$.path", is("uri=/api/notes/4242")));
+	}
+
+	@Test
+	public void whenTooManyTicketIds_thenReturnBadRequest() throws Exception {
+		String[] ids = new String[1001];
+		for (int i = 0; i < ids.length; i++) {
+			ids[i] = "OPS-" + (10000 + i);
+		}
+		mockMvc.perform(get("/api/notes/byticket").param("ids", ids)).andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.error", is("Between 1 and 1000 ticket ids are allowed")));
+	}
+
 	@Test
 	public void whenDeleteNoteByUser_thenReturn200() throws Exception {
 		Note note1 = Note.builder().title("Not spring related").createdBy("user1").text("Notes on Spring Boot").build();
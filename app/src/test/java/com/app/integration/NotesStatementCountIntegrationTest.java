@@ -0,0 +1,127 @@
+package com.app.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import com.app.dao.NotesDao;
+import com.app.model.Note;
+import com.app.model.NoteSummary;
+import com.app.service.NotesService;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Locks in how many SQL statements the lookup and bulk delete paths cost, so a
+ * change that brings back per-row deletes or lookups shows up as a failure.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+public class NotesStatementCountIntegrationTest {
+
+	private static final int NOTES_PER_USER = 25;
+
+	@Autowired
+	private NotesService notesService;
+
+	@Autowired
+	private NotesDao notesDao;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Statistics statistics;
+
+	@BeforeEach
+	void setup() {
+		notesDao.deleteAll();
+		List<Note> notes = new ArrayList<>();
+		for (int i = 0; i < NOTES_PER_USER; i++) {
+			notes.add(Note.builder().title("Release " + i).createdBy("user1").text("Tracked in OPS-1000" + i)
+					.ticketIds(Set.of("OPS-1000" + i)).build());
+			notes.add(Note.builder().title("Release " + i).createdBy("user2").text("Tracked in OPS-2000" + i)
+					.ticketIds(Set.of("OPS-2000" + i)).build());
+		}
+		notesDao.saveAll(notes);
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+	}
+
+	@Test
+	public void deleteByCreatedByIsSetBased() throws Exception {
+		List<Note> deleted = notesService.deleteNoteByCreatedBy("user1", true).getBody();
+
+		assertEquals(NOTES_PER_USER, deleted.size());
+		// one select with the ticket ids joined, one delete for the ticket ids, one for the notes
+		assertEquals(3, statistics.getPrepareStatementCount());
+		assertEquals(NOTES_PER_USER, notesDao.findByCreatedBy("user2").size());
+	}
+
+	@Test
+	public void deleteByTitleWithoutReturningRowsSkipsLoadingThem() throws Exception {
+		notesService.deleteNoteByTitle("Release 3", false);
+
+		assertEquals(3, statistics.getPrepareStatementCount());
+		assertEquals(0, statistics.getEntityLoadCount());
+		assertEquals(2 * NOTES_PER_USER - 2, notesDao.count());
+	}
+
+	@Test
+	public void lookupByCreatedByIsOneQueryThenCached() throws Exception {
+		notesService.getNotesByUser("user2", get(null));
+		notesService.getNotesByUser("user2", get(null));
+
+		assertEquals(1, statistics.getPrepareStatementCount());
+	}
+
+	@Test
+	public void revalidatedListIsAnsweredWithoutTheDatabase() throws Exception {
+		ServletWebRequest first = get(null);
+		notesService.getAllNotes(null, null, first);
+		statistics.clear();
+
+		ResponseEntity<List<NoteSummary>> response = notesService.getAllNotes(null, null,
+				get(first.getResponse().getHeader(HttpHeaders.ETAG)));
+
+		assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+		assertEquals(0, statistics.getPrepareStatementCount());
+	}
+
+	private static ServletWebRequest get(String ifNoneMatch) {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/notes");
+		if (ifNoneMatch != null) {
+			request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+		}
+		return new ServletWebRequest(request, new MockHttpServletResponse());
+	}
+
+	@Test
+	public void lookupColumnsAreIndexed() {
+		List<String> indexed = jdbcTemplate.queryForList(
+				"select lower(table_name || '.' || index_name) from information_schema.indexes", String.class);
+
+		assertTrue(indexed.containsAll(List.of("note.idx_note_created_by", "note.idx_note_title",
+				"note_ticket_ids.idx_note_ticket_ids_note_id", "note_ticket_ids.idx_note_ticket_ids_ticket_ids")),
+				indexed.toString());
+	}
+
+}
@@ -0,0 +1,68 @@
+package com.app.model;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Random;
+
+import org.h2.tools.CompressTool;
+import org.junit.jupiter.api.Test;
+
+public class NoteTextTest {
+
+	private static final CompressTool H2 = CompressTool.getInstance();
+
+	@Test
+	public void readsAndWritesWhatH2CompressAndExpandDo() {
+		// lengths around each size of H2's length prefix, and text that doesn't compress
+		for (String text : List.of("ab", "Notes on Docker", "x".repeat(127), "x".repeat(128), "y".repeat(16_383),
+				"y".repeat(16_384), "z".repeat(2_097_152), random(5000), "Grüße aus Zürich, 東京 🚀 ".repeat(50))) {
+			byte[] utf8 = text.getBytes(StandardCharsets.UTF_8);
+
+			assertEquals(text, NoteText.expand(NoteText.compress(text)));
+			assertArrayEquals(utf8, H2.expand(NoteText.compress(text)));
+			assertEquals(text, NoteText.expand(H2.compress(utf8, "DEFLATE")));
+		}
+	}
+
+	@Test
+	public void compressesRepetitiveText() {
+		String log = "2024-05-01 12:00:00 ERROR Connection refused, retrying OPS-12345\n".repeat(1000);
+
+		assertTrue(NoteText.compress(log).length < log.length() / 50);
+		// nothing to gain on a short note, so it is stored as it is, behind a two byte header
+		assertEquals("Notes on Docker".length() + 2, NoteText.compress("Notes on Docker").length);
+	}
+
+	@Test
+	public void previewCutsLongTextWithAnEllipsis() {
+		String text = "a".repeat(NoteText.PREVIEW_LENGTH);
+
+		assertEquals(text, NoteText.preview(text));
+		assertEquals("a".repeat(NoteText.PREVIEW_LENGTH - 1) + "…", NoteText.preview(text + "b"));
+		// never half of a surrogate pair
+		String rocket = "a".repeat(NoteText.PREVIEW_LENGTH - 2) + "🚀 and more";
+		assertEquals("a".repeat(NoteText.PREVIEW_LENGTH - 2) + "…", NoteText.preview(rocket));
+	}
+
+	@Test
+	public void nullStaysNull() {
+		assertNull(NoteText.compress(null));
+		assertNull(NoteText.expand(null));
+		assertNull(NoteText.preview(null));
+	}
+
+	private static String random(int length) {
+		Random random = new Random(42);
+		StringBuilder text = new StringBuilder(length);
+		for (int i = 0; i < length; i++) {
+			text.append((char) (0x21 + random.nextInt(0x5e)));
+		}
+		return text.toString();
+	}
+
+}
@@ -0,0 +1,51 @@
+package com.app.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+public class NotesSearchIndexTest {
+
+	private final NotesSearchIndex index = new NotesSearchIndex();
+
+	@Test
+	public void tokenizeSplitsOnNonWordCharactersAndFoldsCase() {
+		assertEquals(Map.of("spring", 2, "boot", 1, "3", 1), NotesSearchIndex.tokenize("Spring-Boot 3, spring!"));
+	}
+
+	@Test
+	public void searchRanksTitleMatchesFirstAndRequiresEveryTerm() {
+		index.update(1, "Docker", "notes on spring");
+		index.update(2, "Spring", "notes on docker");
+		index.update(3, "Kubernetes", "notes on spring");
+
+		assertEquals(List.of(2L, 1L, 3L), index.search("SPRING", 0, 10));
+		assertEquals(List.of(1L, 2L), index.search("spring docker", 0, 10));
+		assertEquals(List.of(2L), index.search("spring docker", 1, 10));
+	}
+
+	@Test
+	public void searchMatchesTermPrefixes() {
+		index.update(1, "Springboot", "");
+
+		assertEquals(List.of(1L), index.search("spring", 0, 10));
+	}
+
+	@Test
+	public void partialUpdateKeepsOtherFieldAndRemoveDropsPostings() {
+		index.update(1, "Docker", "notes on compose");
+		index.update(1, null, "notes on swarm");
+
+		assertEquals(List.of(1L), index.search("docker", 0, 10));
+		assertEquals(List.of(), index.search("compose", 0, 10));
+
+		index.remove(1);
+
+		assertEquals(List.of(), index.search("docker", 0, 10));
+		assertEquals(0, index.size());
+	}
+
+}
@@ -0,0 +1,58 @@
+package com.app.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+import java.util.Set;
+import java.util.regex.MatchResult;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+public class TicketIdExtractorTest {
+
+	private static final Pattern TICKET_ID = Pattern.compile("[a-zA-Z]{2,4}-[0-9]{5}");
+
+	private final TicketIdExtractor extractor = new TicketIdExtractor(new String[0]);
+
+	@Test
+	public void extractsSameIdsAsTheRegex() {
+		String text = "see ABC-12345, ops-00001 and JIRAX-99999; not A-12345, AB-1234 or AB--12345. "
+				+ "AB-123456 x-12345-CD-54321";
+
+		assertEquals(regex(text), extractor.extract(text));
+		assertEquals(Set.of("ABC-12345", "ops-00001", "IRAX-99999", "AB-12345", "CD-54321"), extractor.extract(text));
+	}
+
+	@Test
+	public void matchesRegexOnRandomInput() {
+		Random random = new Random(42);
+		char[] alphabet = "aZ-09 x".toCharArray();
+		for (int run = 0; run < 2000; run++) {
+			char[] chars = new char[random.nextInt(40)];
+			for (int i = 0; i < chars.length; i++) {
+				chars[i] = alphabet[random.nextInt(alphabet.length)];
+			}
+			String text = new String(chars).replace("0", "01234");
+			assertEquals(regex(text), extractor.extract(text), text);
+		}
+	}
+
+	@Test
+	public void keepsOnlyConfiguredProjectKeys() {
+		TicketIdExtractor opsOnly = new TicketIdExtractor(new String[] { " ops ", "" });
+
+		assertEquals(Set.of("OPS-12345", "ops-54321"), opsOnly.extract("OPS-12345 ops-54321 ABC-12345 OPSX-11111"));
+	}
+
+	@Test
+	public void nullTextHasNoIds() {
+		assertEquals(Set.of(), extractor.extract(null));
+	}
+
+	private static Set<String> regex(String text) {
+		return TICKET_ID.matcher(text).results().map(MatchResult::group).collect(Collectors.toSet());
+	}
+
+}
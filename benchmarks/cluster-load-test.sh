@@ -0,0 +1,68 @@
+#!/usr/bin/env bash
+# Scales reads out over replicas sharing one H2 server: by id, list and search load spread over 1 to [replicas]
+# nodes, each on its own port, then a check that a write on one node is seen by another.
+# Every replica is a JVM of its own, so the scaling shows on as many free cores. Results are appended to
+# target/load-test.json.
+#
+#   ./cluster-load-test.sh [replicas] [concurrency] [seconds] [notes]
+set -euo pipefail
+
+REPLICAS=${1:-3}
+CONCURRENCY=${2:-64}
+SECONDS_PER_RUN=${3:-20}
+NOTES=${4:-20000}
+source "$(dirname "$0")/load-test-lib.sh"
+DATA_DIR="$HERE/target/cluster-load-test"
+DB_PORT=9093
+CLUSTER_ARGS=(--spring.profiles.active=cluster --notes.cluster.db-url=jdbc:h2:tcp://localhost:$DB_PORT/notes)
+
+(cd "$HERE/../app" && mvn -B -q install -DskipTests)
+build_load_test
+APP_JAR=$(ls "$HERE"/../app/target/app-*-exec.jar)
+PIDS=()
+trap 'kill "${PIDS[@]}" 2>/dev/null' EXIT
+
+rm -rf "$DATA_DIR"
+java -cp "$CLASSPATH" org.h2.tools.Server -tcp -tcpPort $DB_PORT -ifNotExists -baseDir "$DATA_DIR" \
+	> "$HERE/target/h2-server.log" 2>&1 &
+PIDS+=($!)
+
+# start <node>: node 1 on $PORT runs the migrations, so it is up before the others start
+start() {
+	java -jar "$APP_JAR" "${CLUSTER_ARGS[@]}" --server.port=$((PORT + $1 - 1)) \
+		"${APP_ARGS[@]}" > "$HERE/target/app-node$1.log" 2>&1 &
+	PIDS+=($!)
+	wait_for $((PORT + $1 - 1))
+}
+
+# urls <nodes> <path>: the path on each of the first <nodes> nodes, comma separated
+urls() {
+	local list=() i
+	for ((i = 0; i < $1; i++)); do
+		list+=("http://localhost:$((PORT + i))/api/notes$2")
+	done
+	(IFS=,; echo "${list[*]}")
+}
+
+start 1
+seed "$NOTES"
+for ((nodes = 1; nodes <= REPLICAS; nodes++)); do
+	((nodes == 1)) || start $nodes
+	load "$nodes nodes by id" "$(urls $nodes "/$((NOTES / 2))")" "$CONCURRENCY" "$SECONDS_PER_RUN"
+	load "$nodes nodes list" "$(urls $nodes "?after=$((NOTES / 2))&limit=100")" "$CONCURRENCY" "$SECONDS_PER_RUN"
+	load "$nodes nodes search" "$(urls $nodes "/search/spring?limit=100")" "$CONCURRENCY" "$SECONDS_PER_RUN"
+done
+
+if ((REPLICAS > 1)); then
+	# node 2 has the note cached; node 1 changes it, and node 2 must answer with the change within a poll or two
+	OTHER=http://localhost:$((PORT + 1))/api/notes
+	curl -sf -o /dev/null "$OTHER/1"
+	curl -sf -o /dev/null -X PUT -H 'Content-Type: application/json' \
+		-d '{"title":"Changed on node 1","createdBy":"user0","text":"Edited for OPS-54321"}' "$BASE/1"
+	sleep 1
+	curl -sf "$OTHER/1" | grep -q 'Changed on node 1' && echo "node 2 saw node 1's write" \
+		|| { echo "node 2 is stale" >&2; exit 1; }
+	curl -sf "$OTHER/search/54321" | grep -q 'Changed on node 1' && echo "node 2's search index saw it too" \
+		|| { echo "node 2's search index is stale" >&2; exit 1; }
+fi
+echo "results in $OUTPUT"
@@ -0,0 +1,34 @@
+#!/usr/bin/env bash
+# Loads each NotesController endpoint in turn against a freshly seeded app and appends one JSON line
+# per endpoint (throughput, p50/p90/p99) to target/load-test.json, or to $OUTPUT_FILE when set.
+#
+#   ./endpoints-load-test.sh [concurrency] [seconds] [notes]
+set -euo pipefail
+
+CONCURRENCY=${1:-64}
+SECONDS_PER_RUN=${2:-20}
+NOTES=${3:-20000}
+source "$(dirname "$0")/load-test-lib.sh"
+OUTPUT=${OUTPUT_FILE:-$OUTPUT}
+
+(cd "$HERE/../app" && mvn -B -q install -DskipTests)
+build_load_test
+APP_JAR=$(ls "$HERE"/../app/target/app-*-exec.jar)
+
+java -jar "$APP_JAR" "${APP_ARGS[@]}" > "$HERE/target/app-endpoints.log" 2>&1 &
+APP_PID=$!
+trap "kill $APP_PID 2>/dev/null" EXIT
+wait_for $PORT
+seed "$NOTES"
+BODY="$HERE/target/load-test-note.json"
+echo '{"title":"Load test","createdBy":"loadtest","text":"Created under load for OPS-12345"}' > "$BODY"
+
+load "list" "$BASE?limit=100" "$CONCURRENCY" "$SECONDS_PER_RUN"
+load "list after cursor" "$BASE?after=$((NOTES / 2))&limit=100" "$CONCURRENCY" "$SECONDS_PER_RUN"
+load "by id" "$BASE/$((NOTES / 2))" "$CONCURRENCY" "$SECONDS_PER_RUN"
+load "by user" "$BASE/byuser/user7" "$CONCURRENCY" "$SECONDS_PER_RUN"
+load "by title" "$BASE/bytitle/Release%207" "$CONCURRENCY" "$SECONDS_PER_RUN"
+load "by ticket" "$BASE/byticket/OPS-10007" "$CONCURRENCY" "$SECONDS_PER_RUN"
+load "search" "$BASE/search/spring?limit=100" "$CONCURRENCY" "$SECONDS_PER_RUN"
+load "create" "$BASE" "$CONCURRENCY" "$SECONDS_PER_RUN" "$BODY"
+echo "results in $OUTPUT"
@@ -0,0 +1,35 @@
+# Shared by the load test scripts: builds the classpath for LoadTest and seeds notes through the servlet app.
+
+HERE=$(cd "$(dirname "$0")" && pwd)
+PORT=8082
+BASE=http://localhost:$PORT/api/notes
+OUTPUT="$HERE/target/load-test.json"
+# all the load comes from one caller, so the app's admission control is off to measure what it can serve
+APP_ARGS=(--logging.level.root=WARN --notes.admission.enabled=false)
+
+build_load_test() {
+	(cd "$HERE" && mvn -B -q package dependency:build-classpath -Dmdep.outputFile=target/classpath.txt)
+	CLASSPATH="$HERE/target/classes:$(cat "$HERE/target/classpath.txt")"
+}
+
+# wait_for <port>
+wait_for() {
+	until curl -sf -o /dev/null "http://localhost:$1/actuator/health"; do sleep 1; done
+}
+
+# seed <notes>
+seed() {
+	local batch
+	for ((start = 0; start < $1; start += 1000)); do
+		batch=$(for ((i = start; i < start + 1000 && i < $1; i++)); do
+			printf '{"title":"Release %d","createdBy":"user%d","text":"Deploy notes for OPS-%05d and spring upgrade"},' \
+				"$i" $((i % 100)) $((10000 + i % 90000))
+		done)
+		curl -sf -o /dev/null -H 'Content-Type: application/json' -d "[${batch%,}]" "$BASE/addnotes"
+	done
+}
+
+# load <label> <url> <concurrency> <seconds> [json body to POST]
+load() {
+	java -cp "$CLASSPATH" com.app.benchmark.LoadTest "$1" "$2" "$3" "$4" "$OUTPUT" ${5:+"$5"}
+}
@@ -0,0 +1,36 @@
+#!/usr/bin/env bash
+# Compares platform and virtual request threads on the list and search endpoints.
+# Needs Java 21 for the virtual run. Results are appended to target/load-test.json.
+#
+#   ./load-test.sh [concurrency] [seconds] [notes]
+set -euo pipefail
+
+CONCURRENCY=${1:-400}
+SECONDS_PER_RUN=${2:-30}
+NOTES=${3:-20000}
+source "$(dirname "$0")/load-test-lib.sh"
+
+(cd "$HERE/../app" && mvn -B -q -Pjava21 install -DskipTests)
+build_load_test
+APP_JAR=$(ls "$HERE"/../app/target/app-*-exec.jar)
+
+run_mode() {
+	local mode=$1 profile=$2
+	java -jar "$APP_JAR" --spring.profiles.active="$profile" \
+		"${APP_ARGS[@]}" > "$HERE/target/app-$mode.log" 2>&1 &
+	local pid=$!
+	trap "kill $pid 2>/dev/null" EXIT
+	wait_for $PORT
+	seed "$NOTES"
+
+	load "$mode list" "$BASE?limit=100" "$CONCURRENCY" "$SECONDS_PER_RUN"
+	load "$mode search" "$BASE/search/spring?limit=100" "$CONCURRENCY" "$SECONDS_PER_RUN"
+
+	kill "$pid"
+	wait "$pid" || true
+	trap - EXIT
+}
+
+run_mode platform default
+run_mode virtual virtual
+echo "results in $OUTPUT"
@@ -0,0 +1,41 @@
+#!/usr/bin/env bash
+# Runs the servlet app and the reactive module side by side on the same in-memory H2 and loads
+# the list and search endpoints of each. Also records how long each takes to send the first byte
+# of a full export. Results are appended to target/load-test.json.
+#
+#   ./reactive-load-test.sh [concurrency] [seconds] [notes]
+set -euo pipefail
+
+CONCURRENCY=${1:-400}
+SECONDS_PER_RUN=${2:-30}
+NOTES=${3:-20000}
+REACTIVE_PORT=8083
+REACTIVE_BASE=http://localhost:$REACTIVE_PORT/api/notes
+source "$(dirname "$0")/load-test-lib.sh"
+
+(cd "$HERE/../app" && mvn -B -q install -DskipTests)
+(cd "$HERE/../reactive" && mvn -B -q package -DskipTests)
+build_load_test
+APP_JAR=$(ls "$HERE"/../app/target/app-*-exec.jar)
+REACTIVE_JAR=$(ls "$HERE"/../reactive/target/reactive-*.jar)
+
+java -jar "$APP_JAR" --spring.profiles.active=h2-server \
+	"${APP_ARGS[@]}" > "$HERE/target/app-servlet.log" 2>&1 &
+APP_PID=$!
+trap "kill $APP_PID 2>/dev/null" EXIT
+wait_for $PORT
+seed "$NOTES"
+
+java -jar "$REACTIVE_JAR" --logging.level.root=WARN > "$HERE/target/app-reactive.log" 2>&1 &
+REACTIVE_PID=$!
+trap "kill $APP_PID $REACTIVE_PID 2>/dev/null" EXIT
+wait_for $REACTIVE_PORT
+
+for stack in servlet reactive; do
+	[ $stack = servlet ] && url=$BASE || url=$REACTIVE_BASE
+	curl -s -o /dev/null -w "{\"label\":\"$stack export\",\"firstByteSeconds\":%{time_starttransfer},\"totalSeconds\":%{time_total}}\n" \
+		"$url/export" | tee -a "$OUTPUT"
+	load "$stack list" "$url?limit=100" "$CONCURRENCY" "$SECONDS_PER_RUN"
+	load "$stack search" "$url/search/spring?limit=100" "$CONCURRENCY" "$SECONDS_PER_RUN"
+done
+echo "results in $OUTPUT"
@@ -0,0 +1,133 @@
+package com.app.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.app.AppApplication;
+import com.app.ingest.NoteImporter;
+import com.app.model.Note;
+import com.app.service.NotesService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+/**
+ * Rows per second through {@link NotesService#addNotes(List)} for imports of
+ * 1k, 10k and 100k notes against the app's embedded H2, and through
+ * {@link NoteImporter} reading the same notes as NDJSON. The {@code rows}
+ * counter in the output is the figure to compare; the tables are emptied
+ * between invocations so every run inserts into the same starting state. The
+ * search index is switched off because those deletes bypass it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class BulkInsertBenchmark {
+
+	@Param({ "1000", "10000", "100000" })
+	public int notes;
+
+	private ConfigurableApplicationContext context;
+
+	private NotesService notesService;
+
+	private NoteImporter noteImporter;
+
+	private JdbcTemplate jdbcTemplate;
+
+	private ObjectReader reader;
+
+	private List<Note> batch;
+
+	private byte[] ndjson;
+
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.OPERATIONS)
+	public static class Rows {
+		public long rows;
+	}
+
+	@Setup(Level.Trial)
+	public void startApplication() {
+		context = new SpringApplicationBuilder(AppApplication.class).web(WebApplicationType.NONE)
+				.run("--notes.search.index.enabled=false");
+		notesService = context.getBean(NotesService.class);
+		noteImporter = context.getBean(NoteImporter.class);
+		jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+		ObjectMapper objectMapper = context.getBean(ObjectMapper.class);
+		reader = objectMapper.readerFor(Note.class);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try {
+			for (int i = 0; i < notes; i++) {
+				out.write(objectMapper.writeValueAsBytes(note(i)));
+				out.write('\n');
+			}
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+		ndjson = out.toByteArray();
+	}
+
+	@Setup(Level.Invocation)
+	public void prepareBatch() {
+		batch = new ArrayList<>(notes);
+		for (int i = 0; i < notes; i++) {
+			batch.add(note(i));
+		}
+	}
+
+	@TearDown(Level.Invocation)
+	public void emptyTables() {
+		jdbcTemplate.execute("delete from note_ticket_ids");
+		jdbcTemplate.execute("delete from note");
+	}
+
+	@TearDown(Level.Trial)
+	public void stopApplication() {
+		context.close();
+	}
+
+	@Benchmark
+	public void addNotes(Rows rows) throws Exception {
+		notesService.addNotes(batch);
+		rows.rows += batch.size();
+	}
+
+	@Benchmark
+	public void importNdjson(Rows rows) throws Exception {
+		rows.rows += noteImporter.importNotes(reader, new ByteArrayInputStream(ndjson), progress -> {
+		}).imported();
+	}
+
+	private static Note note(int i) {
+		return Note.builder().title("Import " + i).createdBy("user" + (i % 100))
+				.text("Imported note " + i + " about OPS-" + (10000 + i % 90000) + " and deploy logs").build();
+	}
+
+}
@@ -0,0 +1,135 @@
+package com.app.benchmark;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+import com.app.exception.CustomizedResponseEntityExceptionHandler;
+import com.app.exception.ErrorDetails;
+import com.app.exception.NoteNotFoundException;
+import com.app.exception.NotesException;
+import com.app.exception.NotesOperationException;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * A failed request from the throw to the error response, {@code depth} frames
+ * below the handler, roughly what Tomcat, the filters, Spring MVC and the
+ * repository proxies put between them.
+ * <p>
+ * {@code legacy*} is how NotesService and the handler used to do it: a new
+ * {@code Exception} without the cause, and a handler that fails on the missing
+ * cause. The others go through the stackless exceptions and the handler as
+ * they are now. {@code *Failure} starts from a database timeout that has its
+ * own stack trace either way; {@code notFound} is an expected outcome.
+ * The handler's logger is off, so only the exception work is compared.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExceptionPathBenchmark {
+
+	@Param({ "32", "128" })
+	public int depth;
+
+	private CustomizedResponseEntityExceptionHandler handler;
+
+	private WebRequest request;
+
+	@Setup
+	public void setup() {
+		((Logger) LoggerFactory.getLogger(CustomizedResponseEntityExceptionHandler.class)).setLevel(Level.OFF);
+		handler = new CustomizedResponseEntityExceptionHandler();
+		HttpServletRequest servletRequest = (HttpServletRequest) Proxy.newProxyInstance(
+				HttpServletRequest.class.getClassLoader(), new Class<?>[] { HttpServletRequest.class },
+				(proxy, method, args) -> "getRequestURI".equals(method.getName()) ? "/api/notes" : null);
+		request = new ServletWebRequest(servletRequest);
+	}
+
+	@Benchmark
+	public Object legacyFailure() {
+		Exception ex;
+		try {
+			legacyService(depth);
+			return null;
+		} catch (Exception e) {
+			ex = e;
+		}
+		try {
+			return new ErrorDetails(LocalDateTime.now(), ex.getMessage(), ex.getCause().getLocalizedMessage(),
+					request.getDescription(false));
+		} catch (NullPointerException e) {
+			// the handler failing left Spring MVC to answer, with yet another exception
+			return e;
+		}
+	}
+
+	@Benchmark
+	public Object failure() {
+		try {
+			service(depth, false);
+			return null;
+		} catch (NotesException e) {
+			return handler.handleNotesException(e, request);
+		}
+	}
+
+	@Benchmark
+	public Object notFound() {
+		try {
+			service(depth, true);
+			return null;
+		} catch (NotesException e) {
+			return handler.handleNotesException(e, request);
+		}
+	}
+
+	private static void legacyService(int depth) throws Exception {
+		if (depth > 0) {
+			legacyService(depth - 1);
+			return;
+		}
+		try {
+			throw new QueryTimeoutException("statement timed out");
+		} catch (Exception e) {
+			throw new Exception("Get all notes failed");
+		}
+	}
+
+	private static void service(int depth, boolean missing) {
+		if (depth > 0) {
+			service(depth - 1, missing);
+			return;
+		}
+		if (missing) {
+			throw new NoteNotFoundException(42L);
+		}
+		try {
+			throw new QueryTimeoutException("statement timed out");
+		} catch (RuntimeException e) {
+			throw new NotesOperationException("Get all notes failed", e);
+		}
+	}
+
+}
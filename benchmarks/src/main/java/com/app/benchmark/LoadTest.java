@@ -0,0 +1,171 @@
+package com.app.benchmark;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Closed-loop HTTP load generator for comparing server configurations, e.g.
+ * platform against virtual request threads.
+ * <p>
+ * {@code concurrency} client threads each send GETs to {@code url} back to back
+ * for {@code seconds}, after a warmup of the same length, or POST the JSON in
+ * {@code body} when it is given. Prints one JSON line with throughput, latency
+ * percentiles and errors, and appends it to {@code output} when given.
+ * <p>
+ * {@code url} may list several comma separated URLs, e.g. the same endpoint on
+ * each replica; the threads are spread over them round robin.
+ *
+ * <pre>
+ * java -cp ... com.app.benchmark.LoadTest &lt;label&gt; &lt;url&gt; &lt;concurrency&gt; &lt;seconds&gt; [output] [body]
+ * </pre>
+ */
+public class LoadTest {
+
+	public static void main(String[] args) throws Exception {
+		if (args.length < 4) {
+			System.err.println("usage: LoadTest <label> <url> <concurrency> <seconds> [output] [body]");
+			System.exit(2);
+		}
+		String label = args[0];
+		String url = args[1];
+		int concurrency = Integer.parseInt(args[2]);
+		int seconds = Integer.parseInt(args[3]);
+		String body = args.length > 5 ? Files.readString(Path.of(args[5])) : null;
+		List<HttpRequest> requests = new ArrayList<>();
+		for (String each : url.split(",")) {
+			HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(each)).timeout(Duration.ofSeconds(30));
+			if (body != null) {
+				request.header("Content-Type", "application/json").POST(HttpRequest.BodyPublishers.ofString(body));
+			}
+			requests.add(request.build());
+		}
+
+		HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1)
+				.connectTimeout(Duration.ofSeconds(10)).build();
+		run(client, requests, concurrency, seconds);
+		String result = run(client, requests, concurrency, seconds).toJson(label, url, concurrency);
+
+		System.out.println(result);
+		if (args.length > 4 && !args[4].isEmpty()) {
+			Files.writeString(Path.of(args[4]), result + "\n", StandardOpenOption.CREATE,
+					StandardOpenOption.APPEND);
+		}
+	}
+
+	private static Result run(HttpClient client, List<HttpRequest> requests, int concurrency, int seconds)
+			throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+		List<Worker> workers = new ArrayList<>();
+		CountDownLatch done = new CountDownLatch(concurrency);
+		for (int i = 0; i < concurrency; i++) {
+			Worker worker = new Worker(client, requests.get(i % requests.size()), deadline, done);
+			workers.add(worker);
+			Thread thread = new Thread(worker, "load-" + i);
+			thread.setDaemon(true);
+			thread.start();
+		}
+		done.await();
+
+		Result result = new Result(seconds);
+		workers.forEach(result::add);
+		return result;
+	}
+
+	private static final class Worker implements Runnable {
+
+		private final HttpClient client;
+		private final HttpRequest request;
+		private final long deadline;
+		private final CountDownLatch done;
+
+		private long[] latencies = new long[1024];
+		private int count;
+		private int errors;
+
+		Worker(HttpClient client, HttpRequest request, long deadline, CountDownLatch done) {
+			this.client = client;
+			this.request = request;
+			this.deadline = deadline;
+			this.done = done;
+		}
+
+		@Override
+		public void run() {
+			try {
+				long start;
+				while ((start = System.nanoTime()) < deadline) {
+					try {
+						HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+						if (response.statusCode() >= 400) {
+							errors++;
+							continue;
+						}
+					} catch (IOException e) {
+						errors++;
+						continue;
+					}
+					if (count == latencies.length) {
+						latencies = Arrays.copyOf(latencies, count * 2);
+					}
+					latencies[count++] = System.nanoTime() - start;
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} finally {
+				done.countDown();
+			}
+		}
+
+	}
+
+	private static final class Result {
+
+		private final int seconds;
+		private long[] latencies = new long[0];
+		private int errors;
+
+		Result(int seconds) {
+			this.seconds = seconds;
+		}
+
+		void add(Worker worker) {
+			int offset = latencies.length;
+			latencies = Arrays.copyOf(latencies, offset + worker.count);
+			System.arraycopy(worker.latencies, 0, latencies, offset, worker.count);
+			errors += worker.errors;
+		}
+
+		String toJson(String label, String url, int concurrency) {
+			Arrays.sort(latencies);
+			return String.format(Locale.ROOT,
+					"{\"label\":\"%s\",\"url\":\"%s\",\"concurrency\":%d,\"seconds\":%d,\"requests\":%d,"
+							+ "\"errors\":%d,\"throughput\":%.1f,\"p50Ms\":%.2f,\"p90Ms\":%.2f,\"p99Ms\":%.2f,"
+							+ "\"maxMs\":%.2f}",
+					label, url, concurrency, seconds, latencies.length, errors, (double) latencies.length / seconds,
+					percentile(0.50), percentile(0.90), percentile(0.99), percentile(1.0));
+		}
+
+		private double percentile(double p) {
+			if (latencies.length == 0) {
+				return 0;
+			}
+			int index = (int) Math.min(latencies.length - 1, Math.ceil(p * latencies.length) - 1);
+			return latencies[Math.max(index, 0)] / 1_000_000.0;
+		}
+
+	}
+
+}
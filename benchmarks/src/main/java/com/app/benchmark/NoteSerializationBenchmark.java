@@ -0,0 +1,162 @@
+package com.app.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.GenericHttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import com.app.config.ProtobufNotesHttpMessageConverter;
+import com.app.model.Note;
+
+/**
+ * Note to the wire and back, for one note and for a 100 note page, in each
+ * format the API negotiates: JSON, Smile, CBOR and protobuf. Goes through the
+ * same HttpMessageConverters the controllers use, with the ObjectMapper
+ * defaults Spring Boot gives them. The encoded sizes are printed at setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NoteSerializationBenchmark {
+
+	private static final Type NOTE_LIST = new ParameterizedTypeReference<List<Note>>() {
+	}.getType();
+
+	@Param({ "json", "smile", "cbor", "protobuf" })
+	public String format;
+
+	private GenericHttpMessageConverter<Object> converter;
+
+	private MediaType mediaType;
+
+	private Note note;
+
+	private List<Note> page;
+
+	private byte[] noteBytes;
+
+	private byte[] pageBytes;
+
+	@Setup
+	public void setup() throws IOException {
+		converter = switch (format) {
+		case "json" -> new MappingJackson2HttpMessageConverter(Jackson2ObjectMapperBuilder.json().build());
+		case "smile" -> new MappingJackson2SmileHttpMessageConverter(Jackson2ObjectMapperBuilder.smile().build());
+		case "cbor" -> new MappingJackson2CborHttpMessageConverter(Jackson2ObjectMapperBuilder.cbor().build());
+		case "protobuf" -> new ProtobufNotesHttpMessageConverter();
+		default -> throw new IllegalArgumentException(format);
+		};
+		mediaType = converter.getSupportedMediaTypes().get(0);
+		note = note(1);
+		page = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			page.add(note(i));
+		}
+		noteBytes = writeNote();
+		pageBytes = writePage();
+		System.out.printf("%n%s: note %d bytes, 100 note page %d bytes%n", format, noteBytes.length, pageBytes.length);
+	}
+
+	@Benchmark
+	public byte[] writeNote() throws IOException {
+		return write(note, Note.class);
+	}
+
+	@Benchmark
+	public Object readNote() throws IOException {
+		return converter.read(Note.class, null, new Input(noteBytes));
+	}
+
+	@Benchmark
+	public byte[] writePage() throws IOException {
+		return write(page, NOTE_LIST);
+	}
+
+	@Benchmark
+	public Object readPage() throws IOException {
+		return converter.read(NOTE_LIST, null, new Input(pageBytes));
+	}
+
+	private byte[] write(Object value, Type type) throws IOException {
+		Output output = new Output();
+		converter.write(value, type, mediaType, output);
+		return output.body.toByteArray();
+	}
+
+	static Note note(int i) {
+		return Note.builder().id(i).version(3).title("Release " + i).createdBy("user" + (i % 100))
+				.text("Deploy notes for OPS-" + (10000 + i) + ": rolled the canary back after ABC-" + (20000 + i)
+						+ " showed elevated error rates on checkout, retry scheduled after the config fix.")
+				.ticketIds(Set.of("OPS-" + (10000 + i), "ABC-" + (20000 + i))).build();
+	}
+
+	private static final class Input implements HttpInputMessage {
+
+		private final byte[] body;
+
+		Input(byte[] body) {
+			this.body = body;
+		}
+
+		@Override
+		public InputStream getBody() {
+			return new ByteArrayInputStream(body);
+		}
+
+		@Override
+		public HttpHeaders getHeaders() {
+			return new HttpHeaders();
+		}
+
+	}
+
+	private static final class Output implements HttpOutputMessage {
+
+		private final ByteArrayOutputStream body = new ByteArrayOutputStream(32 * 1024);
+
+		private final HttpHeaders headers = new HttpHeaders();
+
+		@Override
+		public OutputStream getBody() {
+			return body;
+		}
+
+		@Override
+		public HttpHeaders getHeaders() {
+			return headers;
+		}
+
+	}
+
+}
@@ -0,0 +1,151 @@
+package com.app.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.app.AppApplication;
+import com.app.dao.NotesDao;
+import com.app.model.Note;
+import com.app.model.NoteSummary;
+import com.app.model.NoteText;
+import com.app.service.NotesService;
+
+/**
+ * {@link NotesDao} queries against 10k, 100k and 1M notes seeded straight into
+ * the app's embedded H2. Every user and every title owns 100 notes whatever the
+ * table size, so the lookups return the same amount of data and only the cost
+ * of finding it changes. One note in ten mentions "spring"; the missing keyword
+ * search has to scan the whole table.
+ * <p>
+ * Keyword search has no query of its own now that the text is stored
+ * compressed; it is measured through {@link NotesService}, whose scan with the
+ * search index turned off expands every note's text.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class NotesDaoBenchmark {
+
+	private static final int NOTES_PER_KEY = 100;
+
+	private static final int SEED_BATCH = 10_000;
+
+	@Param({ "10000", "100000", "1000000" })
+	public int rows;
+
+	private ConfigurableApplicationContext context;
+
+	private NotesDao notesDao;
+
+	private NotesService notesService;
+
+	private int keys;
+
+	@Setup(Level.Trial)
+	public void seed() {
+		context = new SpringApplicationBuilder(AppApplication.class).web(WebApplicationType.NONE)
+				.run("--notes.search.index.enabled=false");
+		notesDao = context.getBean(NotesDao.class);
+		notesService = context.getBean(NotesService.class);
+		keys = rows / NOTES_PER_KEY;
+
+		JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+		for (int start = 0; start < rows; start += SEED_BATCH) {
+			List<Object[]> notes = new ArrayList<>(SEED_BATCH);
+			List<Object[]> ticketIds = new ArrayList<>(SEED_BATCH);
+			for (int i = start; i < Math.min(start + SEED_BATCH, rows); i++) {
+				long id = i + 1;
+				notes.add(new Object[] { id, "Release " + (i % keys), "user" + (i % keys),
+						NoteText.compress(text(i)), NoteText.preview(text(i)) });
+				ticketIds.add(new Object[] { id, ticketId(i) });
+			}
+			jdbcTemplate.batchUpdate(
+					"insert into note (id, version, title, created_by, text, preview) values (?, 0, ?, ?, ?, ?)", notes);
+			jdbcTemplate.batchUpdate("insert into note_ticket_ids (note_id, ticket_ids) values (?, ?)", ticketIds);
+		}
+		// keep ids handed out by the sequence clear of the seeded ones
+		jdbcTemplate.execute("alter sequence note_seq restart with " + (rows + 1));
+	}
+
+	@TearDown(Level.Trial)
+	public void stopApplication() {
+		context.close();
+	}
+
+	@Benchmark
+	public Note findById() {
+		return notesDao.findById(randomId()).orElseThrow();
+	}
+
+	@Benchmark
+	public List<Note> findWithTicketIdsByCreatedBy() {
+		return notesDao.findWithTicketIdsByCreatedBy("user" + ThreadLocalRandom.current().nextInt(keys));
+	}
+
+	@Benchmark
+	public List<Note> findWithTicketIdsByTitle() {
+		return notesDao.findWithTicketIdsByTitle("Release " + ThreadLocalRandom.current().nextInt(keys));
+	}
+
+	@Benchmark
+	public List<NoteSummary> findSummariesByCreatedBy() {
+		return notesDao.findSummariesByCreatedBy("user" + ThreadLocalRandom.current().nextInt(keys));
+	}
+
+	@Benchmark
+	public List<NoteSummary> findSummariesByTicketIdIn() {
+		return notesDao.findSummariesByTicketIdIn(Set.of(ticketId(ThreadLocalRandom.current().nextInt(rows))));
+	}
+
+	@Benchmark
+	public List<NoteSummary> pageAfterCursor() {
+		return notesDao.findSummariesAfter(Math.max(randomId() - 100, 0), 100);
+	}
+
+	@Benchmark
+	public List<NoteSummary> searchCommonKeyword() {
+		return notesService.searchByKeyword("spring", 0, 100, null).getBody();
+	}
+
+	@Benchmark
+	public List<NoteSummary> searchMissingKeyword() {
+		return notesService.searchByKeyword("kubernetes", 0, 100, null).getBody();
+	}
+
+	private long randomId() {
+		return ThreadLocalRandom.current().nextLong(rows) + 1;
+	}
+
+	private static String text(int i) {
+		return "Deploy notes " + i + " for " + ticketId(i) + (i % 10 == 0 ? ", spring upgrade pending" : "");
+	}
+
+	private static String ticketId(int i) {
+		return "OPS-" + (10000 + i % 90000);
+	}
+
+}
@@ -0,0 +1,93 @@
+package com.app.benchmark;
+
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.app.service.TicketIdExtractor;
+
+/**
+ * Compares {@link TicketIdExtractor} with the regex it replaced, on a short
+ * note, a medium note and a 1 MB pasted build log.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TicketIdExtractorBenchmark {
+
+	@Param({ "small", "medium", "1mb" })
+	public String input;
+
+	private String text;
+
+	private TicketIdExtractor extractor;
+
+	@Setup
+	public void setup() {
+		text = switch (input) {
+		case "small" -> "Deploy blocked by OPS-10234, retry after ABC-55501 is merged. Owner on call today.";
+		case "medium" -> buildLog(16 * 1024);
+		case "1mb" -> buildLog(1024 * 1024);
+		default -> throw new IllegalArgumentException(input);
+		};
+		extractor = new TicketIdExtractor(new String[0]);
+	}
+
+	@Benchmark
+	public Set<String> scanner() {
+		return extractor.extract(text);
+	}
+
+	@Benchmark
+	public Set<String> legacyRegex() {
+		return legacyExtractTicketIds(text);
+	}
+
+	/** The implementation NotesService used before TicketIdExtractor, kept as the baseline. */
+	static Set<String> legacyExtractTicketIds(String text) {
+		Pattern pattern = Pattern.compile("[a-zA-Z]{2,4}-[0-9]{5}");
+
+		Matcher matcher = pattern.matcher(text);
+		return (Set<String>) matcher.results().map(i -> i.group()).collect(Collectors.toSet());
+	}
+
+	/**
+	 * Log-like text: timestamps, dashed identifiers and hashes, with a ticket id
+	 * on roughly one line in fifty.
+	 */
+	static String buildLog(int size) {
+		Random random = new Random(7);
+		StringBuilder log = new StringBuilder(size + 200);
+		int line = 0;
+		while (log.length() < size) {
+			log.append("2024-03-").append(10 + random.nextInt(18)).append(" 12:").append(10 + random.nextInt(50))
+					.append(":07.512 INFO  [build-worker-").append(random.nextInt(8)).append("] task-")
+					.append(Integer.toHexString(random.nextInt())).append(" compiled module-")
+					.append(random.nextInt(400)).append(" in ").append(random.nextInt(9000)).append(" ms");
+			if (line++ % 50 == 0) {
+				log.append(" (see BLD-").append(10000 + random.nextInt(90000)).append(')');
+			}
+			log.append('\n');
+		}
+		return log.toString();
+	}
+
+}
@@ -0,0 +1,60 @@
+#!/usr/bin/env bash
+# Time to first request for each way of starting the app: the plain jar, the jar with the prod profile,
+# the same with AOT, AOT on a CDS archive, and the native image when app/target/app has been built
+# (mvn -Pprod,native native:compile, needs GraalVM). Each mode is started several times; every run and
+# the median per mode are appended to target/load-test.json.
+#
+#   ./startup-test.sh [runs]
+set -euo pipefail
+
+RUNS=${1:-5}
+source "$(dirname "$0")/load-test-lib.sh"
+APP="$HERE/../app"
+
+"$APP/cds-archive.sh"
+APP_JAR=$(ls "$APP"/target/app-*-exec.jar)
+CDS="$APP/target/cds"
+CDS_CLASS_PATH=$(cat "$CDS/classpath.txt")
+
+millis() {
+	echo $(($(date +%s%N) / 1000000))
+}
+
+# first_request <label> <command...>: starts the app and records when GET /api/notes first answers
+first_request() {
+	local label=$1 begin pid
+	shift
+	begin=$(millis)
+	"$@" --logging.level.root=WARN > "$HERE/target/startup-test.log" 2>&1 &
+	pid=$!
+	until curl -s -o /dev/null "$BASE?limit=1"; do
+		kill -0 "$pid" 2>/dev/null || { cat "$HERE/target/startup-test.log"; exit 1; }
+		sleep 0.02
+	done
+	echo $(($(millis) - begin))
+	kill "$pid"
+	wait "$pid" || true
+}
+
+run_mode() {
+	local label=$1 times=() run
+	shift
+	for ((run = 0; run < RUNS; run++)); do
+		times+=("$(first_request "$label" "$@")")
+		echo "{\"label\":\"$label first request\",\"run\":$run,\"millis\":${times[-1]}}" >> "$OUTPUT"
+	done
+	echo "{\"label\":\"$label first request\",\"runs\":$RUNS,\"medianMillis\":$(printf '%s\n' "${times[@]}" \
+		| sort -n | sed -n "$((RUNS / 2 + 1))p")}" | tee -a "$OUTPUT"
+}
+
+run_mode "jar" java -jar "$APP_JAR"
+run_mode "jar prod" java -jar "$APP_JAR" --spring.profiles.active=prod
+run_mode "aot" java -Dspring.aot.enabled=true -jar "$APP_JAR" --spring.profiles.active=prod
+run_mode "aot cds" java -XX:SharedArchiveFile="$CDS/app.jsa" -Xlog:cds=off -Dspring.aot.enabled=true \
+	-Dspring.profiles.active=prod -cp "$CDS_CLASS_PATH" com.app.AppApplication
+if [[ -x "$APP/target/app" ]]; then
+	run_mode "native" "$APP/target/app" --spring.profiles.active=prod
+else
+	echo "no native image at app/target/app, skipping it"
+fi
+echo "results in $OUTPUT"
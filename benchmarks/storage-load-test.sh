@@ -0,0 +1,64 @@
+#!/usr/bin/env bash
+# Compares the in-memory database with the persistent (file) profile: startup time, seeding
+# throughput, list/by id/create load, and for the file database a restart with the data in place.
+# Results are appended to target/load-test.json.
+#
+#   ./storage-load-test.sh [concurrency] [seconds] [notes]
+set -euo pipefail
+
+CONCURRENCY=${1:-64}
+SECONDS_PER_RUN=${2:-20}
+NOTES=${3:-100000}
+source "$(dirname "$0")/load-test-lib.sh"
+DATA_DIR="$HERE/target/storage-load-test"
+
+(cd "$HERE/../app" && mvn -B -q install -DskipTests)
+build_load_test
+APP_JAR=$(ls "$HERE"/../app/target/app-*-exec.jar)
+BODY="$HERE/target/load-test-note.json"
+echo '{"title":"Load test","createdBy":"loadtest","text":"Created under load for OPS-12345"}' > "$BODY"
+
+millis() {
+	echo $(($(date +%s%N) / 1000000))
+}
+
+# start <mode> <profile>: starts the app and records how long it took to become healthy
+start() {
+	local begin
+	begin=$(millis)
+	java -jar "$APP_JAR" --spring.profiles.active="$2" --notes.data-dir="$DATA_DIR" \
+		"${APP_ARGS[@]}" > "$HERE/target/app-$1.log" 2>&1 &
+	APP_PID=$!
+	trap "kill $APP_PID 2>/dev/null" EXIT
+	wait_for $PORT
+	echo "{\"label\":\"$1 startup\",\"millis\":$(($(millis) - begin))}" | tee -a "$OUTPUT"
+}
+
+stop() {
+	kill "$APP_PID"
+	wait "$APP_PID" || true
+	trap - EXIT
+}
+
+run_mode() {
+	local mode=$1 profile=$2 begin
+	start "$mode" "$profile"
+	begin=$(millis)
+	seed "$NOTES"
+	echo "{\"label\":\"$mode seed\",\"notes\":$NOTES,\"millis\":$(($(millis) - begin))}" | tee -a "$OUTPUT"
+
+	load "$mode list" "$BASE?after=$((NOTES / 2))&limit=100" "$CONCURRENCY" "$SECONDS_PER_RUN"
+	load "$mode by id" "$BASE/$((NOTES / 2))" "$CONCURRENCY" "$SECONDS_PER_RUN"
+	load "$mode create" "$BASE" "$CONCURRENCY" "$SECONDS_PER_RUN" "$BODY"
+	stop
+}
+
+rm -rf "$DATA_DIR"
+run_mode memory default
+run_mode file persistent
+
+# the file database reopens with everything in it; the search index is rebuilt from it in the background
+start "file restart" persistent
+curl -sf -o /dev/null "$BASE/$((NOTES / 2))" && echo "notes survived the restart"
+stop
+echo "results in $OUTPUT"
@@ -0,0 +1,17 @@
+package com.app.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Import;
+
+import com.app.service.TicketIdExtractor;
+
+@SpringBootApplication
+@Import(TicketIdExtractor.class)
+public class ReactiveApplication {
+
+	public static void main(String[] args) {
+		SpringApplication.run(ReactiveApplication.class, args);
+	}
+
+}
@@ -0,0 +1,41 @@
+package com.app.reactive.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.transaction.ReactiveTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Option;
+
+/**
+ * Begins transactions without the read-only attribute. Spring always sets it,
+ * false or not, and r2dbc-h2 warns about it on every transaction, as H2 only
+ * takes read-only on the connection URL.
+ */
+@Configuration(proxyBeanMethods = false)
+public class H2TransactionConfiguration {
+
+	@Bean
+	ReactiveTransactionManager transactionManager(ConnectionFactory connectionFactory) {
+		return new R2dbcTransactionManager(connectionFactory) {
+
+			@Override
+			protected io.r2dbc.spi.TransactionDefinition createTransactionDefinition(TransactionDefinition definition) {
+				io.r2dbc.spi.TransactionDefinition attributes = super.createTransactionDefinition(definition);
+				return new io.r2dbc.spi.TransactionDefinition() {
+
+					@Override
+					public <T> T getAttribute(Option<T> option) {
+						return io.r2dbc.spi.TransactionDefinition.READ_ONLY.equals(option) ? null
+								: attributes.getAttribute(option);
+					}
+
+				};
+			}
+
+		};
+	}
+
+}
@@ -0,0 +1,112 @@
+package com.app.reactive.controller;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.app.reactive.model.Note;
+import com.app.reactive.service.NotesService;
+
+import jakarta.validation.Valid;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * The servlet app's {@code /api/notes} contract for reads, creates, edits and
+ * deletes. The list and search endpoints also stream, as NDJSON or server-sent
+ * events, when asked for through {@code Accept}.
+ */
+@RestController
+@RequestMapping("/api/notes")
+public class NotesController {
+
+	private static final String NDJSON = "application/x-ndjson";
+	private static final String EVENT_STREAM = "text/event-stream";
+
+	@Autowired
+	NotesService notesService;
+
+	@GetMapping(produces = { "application/json" })
+	public Mono<ResponseEntity<List<Note>>> getAllNotes(@RequestParam(required = false) Long after,
+			@RequestParam(required = false) Integer limit) {
+		return notesService.getAllNotes(after, limit);
+	}
+
+	@GetMapping(produces = { NDJSON, EVENT_STREAM })
+	public Flux<Note> streamNotes(@RequestParam(required = false) Long after,
+			@RequestParam(required = false) Integer limit) {
+		return notesService.streamNotes(after, limit);
+	}
+
+	@GetMapping(value = "export", produces = { NDJSON })
+	public Flux<Note> exportNotes() {
+		return notesService.streamNotes(null, null);
+	}
+
+	@GetMapping("/byuser/{user}")
+	public Mono<ResponseEntity<List<Note>>> getNotesByUser(@PathVariable("user") String createdBy) {
+		return notesService.getNotesByUser(createdBy);
+	}
+
+	@GetMapping("/bytitle/{title}")
+	public Mono<ResponseEntity<List<Note>>> getNotesByTitle(@PathVariable String title) {
+		return notesService.getNotesByTitle(title);
+	}
+
+	@GetMapping("/byticket/{ticketId}")
+	public Mono<ResponseEntity<List<Note>>> getNotesByTicketId(@PathVariable String ticketId) {
+		return notesService.getNotesByTicketId(ticketId);
+	}
+
+	@GetMapping(value = "search/{keyword}", produces = { "application/json" })
+	public Mono<ResponseEntity<List<Note>>> searchByKeyword(@PathVariable String keyword,
+			@RequestParam(required = false) Integer offset, @RequestParam(required = false) Integer limit) {
+		return notesService.searchByKeyword(keyword, offset, limit);
+	}
+
+	@GetMapping(value = "search/{keyword}", produces = { NDJSON, EVENT_STREAM })
+	public Flux<Note> streamSearch(@PathVariable String keyword, @RequestParam(required = false) Integer offset,
+			@RequestParam(required = false) Integer limit) {
+		return notesService.streamSearch(keyword, offset, limit);
+	}
+
+	@GetMapping("/{id}")
+	public Mono<ResponseEntity<Note>> getNote(@PathVariable Long id) {
+		return notesService.getNote(id);
+	}
+
+	@PostMapping
+	public Mono<ResponseEntity<Note>> addNote(@Valid @RequestBody Note note) {
+		return notesService.addNote(note);
+	}
+
+	@PostMapping("addnotes")
+	public Mono<ResponseEntity<List<Note>>> addNotes(@RequestBody List<Note> notes) {
+		return notesService.addNotes(notes);
+	}
+
+	@PutMapping("/{id}")
+	public Mono<ResponseEntity<Note>> editNote(@PathVariable Long id, @Valid @RequestBody Note note,
+			@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+		return notesService.editNote(note, id, ifMatch);
+	}
+
+	@DeleteMapping("/{id}")
+	public Mono<ResponseEntity<HttpStatus>> delete(@PathVariable Long id) {
+		return notesService.deleteById(id);
+	}
+
+}
@@ -0,0 +1,187 @@
+package com.app.reactive.dao;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.app.event.NoteChangedEvent;
+import com.app.model.NoteText;
+import com.app.reactive.model.Note;
+
+import io.r2dbc.spi.Readable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive access to the servlet app's tables through {@link DatabaseClient},
+ * as R2DBC has no element collections. Writes append their entry to
+ * {@code note_change} in the same transaction, as the app's NoteChangeLog does.
+ */
+@Repository
+public class NotesRepository {
+
+	private static final String SELECT = "select n.id, n.version, n.title, n.created_by, "
+			+ "utf8tostring(expand(n.text)) as text, "
+			+ "(select listagg(t.ticket_ids, ',') from note_ticket_ids t where t.note_id = n.id) as ticket_ids "
+			+ "from note n ";
+
+	private static final String INSERT_CHANGE = "insert into note_change (seq, type, note_id, title, created_by, "
+			+ "changed_at, node) values (:seq, :type, :noteId, :title, :createdBy, :changedAt, :node)";
+
+	/** Note text is stored compressed, see {@link NoteText}; H2 writes the same format. */
+	private static final String COMPRESSED_TEXT = "compress(stringtoutf8(:text), 'DEFLATE')";
+
+	private static final BiFunction<Readable, Object, Note> MAPPER = (row, metadata) -> Note.builder()
+			.id(row.get("id", Long.class)).version(row.get("version", Long.class)).title(row.get("title", String.class))
+			.createdBy(row.get("created_by", String.class)).text(row.get("text", String.class))
+			.ticketIds(ticketIds(row.get("ticket_ids", String.class))).build();
+
+	/** Names this instance's entries in the change log, so the app's replicas don't take them for their own. */
+	private final String node = UUID.randomUUID().toString();
+
+	@Autowired
+	DatabaseClient databaseClient;
+
+	public Flux<Note> findAll(long after, int limit) {
+		return databaseClient.sql(SELECT + "where n.id > :after order by n.id fetch first :limit rows only")
+				.bind("after", after).bind("limit", limit).map(MAPPER::apply).all();
+	}
+
+	public Mono<Note> findById(long id) {
+		return databaseClient.sql(SELECT + "where n.id = :id").bind("id", id).map(MAPPER::apply).one();
+	}
+
+	public Flux<Note> findByCreatedBy(String createdBy) {
+		return databaseClient.sql(SELECT + "where n.created_by = :createdBy order by n.id")
+				.bind("createdBy", createdBy).map(MAPPER::apply).all();
+	}
+
+	public Flux<Note> findByTitle(String title) {
+		return databaseClient.sql(SELECT + "where n.title = :title order by n.id").bind("title", title)
+				.map(MAPPER::apply).all();
+	}
+
+	public Flux<Note> findByTicketId(String ticketId) {
+		return databaseClient
+				.sql(SELECT + "where n.id in (select t.note_id from note_ticket_ids t where t.ticket_ids = :ticketId) "
+						+ "order by n.id")
+				.bind("ticketId", ticketId).map(MAPPER::apply).all();
+	}
+
+	/** Notes whose title or text contains {@code keyword}, ignoring case, in id order. */
+	public Flux<Note> search(String keyword, long offset, int limit) {
+		return databaseClient
+				.sql(SELECT + "where lower(n.title) like :pattern or lower(utf8tostring(expand(n.text))) like :pattern "
+						+ "order by n.id offset :offset rows fetch next :limit rows only")
+				.bind("pattern", "%" + escapeLike(keyword.toLowerCase()) + "%").bind("offset", offset)
+				.bind("limit", limit).map(MAPPER::apply).all();
+	}
+
+	/**
+	 * Inserts a note with an id drawn from {@code note_seq}. The JPA side takes
+	 * blocks of 100 ids per sequence value; using the value itself as the id
+	 * never lands inside one of those blocks.
+	 */
+	@Transactional
+	public Mono<Note> insert(Note note) {
+		return databaseClient.sql("select next value for note_seq").map(row -> row.get(0, Long.class)).one()
+				.flatMap(id -> databaseClient
+						.sql("insert into note (id, version, title, created_by, text, preview) "
+								+ "values (:id, 0, :title, :createdBy, " + COMPRESSED_TEXT + ", :preview)")
+						.bind("id", id).bind("title", note.getTitle()).bind("createdBy", note.getCreatedBy())
+						.bind("text", note.getText()).bind("preview", NoteText.preview(note.getText())).then()
+						.then(insertTicketIds(id, note.getTicketIds()))
+						.then(logChange(NoteChangedEvent.Type.CREATED, id, note.getTitle(), note.getCreatedBy()))
+						.thenReturn(Note.builder().id(id).version(0).title(note.getTitle())
+								.createdBy(note.getCreatedBy()).text(note.getText()).ticketIds(note.getTicketIds())
+								.build()));
+	}
+
+	@Transactional
+	public Flux<Note> insertAll(Collection<Note> notes) {
+		return Flux.fromIterable(notes).concatMap(this::insert);
+	}
+
+	/**
+	 * Overwrites a note if it is still at {@code version} (any version when
+	 * {@code null}). Emits the rows updated: 0 when it is gone or was changed by
+	 * someone else.
+	 */
+	@Transactional
+	public Mono<Long> update(long id, Long version, Note note) {
+		String sql = "update note set title = :title, created_by = :createdBy, text = " + COMPRESSED_TEXT
+				+ ", preview = :preview, version = version + 1 where id = :id"
+				+ (version != null ? " and version = :version" : "");
+		DatabaseClient.GenericExecuteSpec update = databaseClient.sql(sql).bind("id", id)
+				.bind("title", note.getTitle()).bind("createdBy", note.getCreatedBy()).bind("text", note.getText())
+				.bind("preview", NoteText.preview(note.getText()));
+		if (version != null) {
+			update = update.bind("version", version);
+		}
+		return update.fetch().rowsUpdated().flatMap(updated -> updated == 0 ? Mono.just(updated)
+				: databaseClient.sql("delete from note_ticket_ids where note_id = :id").bind("id", id).then()
+						.then(insertTicketIds(id, note.getTicketIds()))
+						.then(logChange(NoteChangedEvent.Type.UPDATED, id, note.getTitle(), note.getCreatedBy()))
+						.thenReturn(updated));
+	}
+
+	/** Emits the rows deleted; the change is logged without the title and user, which aren't read. */
+	@Transactional
+	public Mono<Long> deleteById(long id) {
+		return databaseClient.sql("delete from note_ticket_ids where note_id = :id").bind("id", id).then()
+				.then(databaseClient.sql("delete from note where id = :id").bind("id", id).fetch().rowsUpdated())
+				.flatMap(deleted -> deleted == 0 ? Mono.just(deleted)
+						: logChange(NoteChangedEvent.Type.DELETED, id, null, null).thenReturn(deleted));
+	}
+
+	/**
+	 * Appends an entry for a change to the log. Taking its seq locks the one
+	 * {@code note_change_head} row until commit, so seqs are handed out in
+	 * commit order; that is why it comes last in the transaction.
+	 */
+	private Mono<Void> logChange(NoteChangedEvent.Type type, long id, String title, String createdBy) {
+		return databaseClient.sql("update note_change_head set last_seq = last_seq + 1 where id = 1").then()
+				.then(databaseClient.sql("select last_seq from note_change_head where id = 1")
+						.map(row -> row.get(0, Long.class)).one())
+				.flatMap(seq -> {
+					DatabaseClient.GenericExecuteSpec insert = databaseClient.sql(INSERT_CHANGE).bind("seq", seq)
+							.bind("type", type.name()).bind("noteId", id)
+							.bind("changedAt", LocalDateTime.now().truncatedTo(ChronoUnit.MICROS))
+							.bind("node", node);
+					insert = title == null ? insert.bindNull("title", String.class) : insert.bind("title", title);
+					insert = createdBy == null ? insert.bindNull("createdBy", String.class)
+							: insert.bind("createdBy", createdBy);
+					return insert.then();
+				});
+	}
+
+	private Mono<Void> insertTicketIds(long id, Set<String> ticketIds) {
+		return Flux.fromIterable(ticketIds)
+				.concatMap(ticketId -> databaseClient
+						.sql("insert into note_ticket_ids (note_id, ticket_ids) values (:id, :ticketId)").bind("id", id)
+						.bind("ticketId", ticketId).then())
+				.then();
+	}
+
+	private static Set<String> ticketIds(String joined) {
+		if (joined == null || joined.isEmpty()) {
+			return Set.of();
+		}
+		return Arrays.stream(joined.split(",")).collect(Collectors.toSet());
+	}
+
+	private static String escapeLike(String keyword) {
+		return keyword.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+	}
+
+}
@@ -0,0 +1,25 @@
+package com.app.reactive.exception;
+
+import java.time.LocalDateTime;
+
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import com.app.exception.ErrorDetails;
+import com.app.exception.NotesException;
+
+/** Answers a {@link NotesException} with its status and the servlet app's {@link ErrorDetails} body. */
+@RestControllerAdvice
+public class NotesExceptionHandler {
+
+	@ExceptionHandler(NotesException.class)
+	public ResponseEntity<ErrorDetails> handleNotesException(NotesException ex, ServerHttpRequest request) {
+		ErrorDetails details = new ErrorDetails(LocalDateTime.now(), ex.getMessage(),
+				NestedExceptionUtils.getMostSpecificCause(ex).getLocalizedMessage(), "uri=" + request.getPath().value());
+		return new ResponseEntity<>(details, ex.getStatus());
+	}
+
+}
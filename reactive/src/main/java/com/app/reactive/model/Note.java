@@ -0,0 +1,33 @@
+package com.app.reactive.model;
+
+import java.util.Set;
+
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** The same JSON shape as the servlet app's note, read from the same tables. */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class Note {
+
+	private long id;
+
+	private long version;
+
+	@Size(min = 2)
+	private String title;
+
+	@Size(min = 2)
+	private String createdBy;
+
+	@Size(min = 2)
+	private String text;
+
+	private Set<String> ticketIds;
+
+}
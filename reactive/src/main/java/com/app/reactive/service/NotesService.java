@@ -0,0 +1,136 @@
+package com.app.reactive.service;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import com.app.exception.NoteNotFoundException;
+import com.app.model.NoteETag;
+import com.app.reactive.dao.NotesRepository;
+import com.app.reactive.model.Note;
+import com.app.service.TicketIdExtractor;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * The notes API on a reactive stack. JSON responses keep the servlet app's
+ * status codes and headers; the streaming variants emit each note as its row
+ * is read.
+ */
+@Service
+public class NotesService {
+
+	public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+	@Autowired
+	NotesRepository notesRepository;
+
+	@Autowired
+	TicketIdExtractor ticketIdExtractor;
+
+	@Value("${notes.page.default-size:100}")
+	int defaultPageSize;
+
+	@Value("${notes.page.max-size:1000}")
+	int maxPageSize;
+
+	public Mono<ResponseEntity<List<Note>>> getAllNotes(Long after, Integer limit) {
+		int pageSize = pageSize(limit);
+		// one extra row tells us whether there is a next page without a count query
+		return notesRepository.findAll(after == null ? 0L : after, pageSize + 1).collectList().map(notes -> {
+			if (notes.isEmpty()) {
+				return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+			}
+			HttpHeaders headers = new HttpHeaders();
+			if (notes.size() > pageSize) {
+				notes = notes.subList(0, pageSize);
+				headers.set(NEXT_CURSOR_HEADER, String.valueOf(notes.get(pageSize - 1).getId()));
+			}
+			return new ResponseEntity<>(notes, headers, HttpStatus.OK);
+		});
+	}
+
+	/** Every note after {@code after}, or up to {@code limit} of them, as they are read. */
+	public Flux<Note> streamNotes(Long after, Integer limit) {
+		return notesRepository.findAll(after == null ? 0L : after, limit == null ? Integer.MAX_VALUE : limit);
+	}
+
+	public Mono<ResponseEntity<Note>> getNote(long id) {
+		return notesRepository.findById(id).map(note -> ResponseEntity.ok().eTag(NoteETag.of(note.getVersion())).body(note))
+				.defaultIfEmpty(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+	}
+
+	public Mono<ResponseEntity<List<Note>>> getNotesByUser(String createdBy) {
+		return list(notesRepository.findByCreatedBy(createdBy));
+	}
+
+	public Mono<ResponseEntity<List<Note>>> getNotesByTitle(String title) {
+		return list(notesRepository.findByTitle(title));
+	}
+
+	public Mono<ResponseEntity<List<Note>>> getNotesByTicketId(String ticketId) {
+		return list(notesRepository.findByTicketId(ticketId));
+	}
+
+	public Mono<ResponseEntity<List<Note>>> searchByKeyword(String keyword, Integer offset, Integer limit) {
+		return list(streamSearch(keyword, offset, limit));
+	}
+
+	public Flux<Note> streamSearch(String keyword, Integer offset, Integer limit) {
+		return notesRepository.search(keyword, offset == null ? 0 : Math.max(offset, 0), pageSize(limit));
+	}
+
+	public Mono<ResponseEntity<Note>> addNote(Note note) {
+		note.setTicketIds(ticketIdExtractor.extract(note.getText()));
+		return notesRepository.insert(note).map(saved -> new ResponseEntity<>(saved, HttpStatus.CREATED));
+	}
+
+	public Mono<ResponseEntity<List<Note>>> addNotes(List<Note> notes) {
+		notes.forEach(note -> note.setTicketIds(ticketIdExtractor.extract(note.getText())));
+		return notesRepository.insertAll(notes).collectList()
+				.map(saved -> new ResponseEntity<>(saved, HttpStatus.CREATED));
+	}
+
+	public Mono<ResponseEntity<Note>> editNote(Note note, long id, String ifMatch) {
+		if (NoteETag.unmatchable(ifMatch)) {
+			return Mono.just(new ResponseEntity<>(HttpStatus.PRECONDITION_FAILED));
+		}
+		Long expectedVersion = NoteETag.parse(ifMatch);
+		note.setTicketIds(ticketIdExtractor.extract(note.getText()));
+		return notesRepository.update(id, expectedVersion, note).flatMap(updated -> {
+			if (updated > 0) {
+				return getNote(id);
+			}
+			if (NoteETag.any(ifMatch)) {
+				return Mono.just(new ResponseEntity<>(HttpStatus.PRECONDITION_FAILED));
+			}
+			if (expectedVersion == null) {
+				return Mono.just(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+			}
+			return notesRepository.findById(id).map(current -> new ResponseEntity<Note>(HttpStatus.PRECONDITION_FAILED))
+					.defaultIfEmpty(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+		});
+	}
+
+	public Mono<ResponseEntity<HttpStatus>> deleteById(long id) {
+		return notesRepository.deleteById(id)
+				.flatMap(deleted -> deleted == 0 ? Mono.error(new NoteNotFoundException(id))
+						: Mono.just(new ResponseEntity<>(HttpStatus.OK)));
+	}
+
+	private int pageSize(Integer limit) {
+		return limit == null ? defaultPageSize : Math.min(Math.max(limit, 1), maxPageSize);
+	}
+
+	private static Mono<ResponseEntity<List<Note>>> list(Flux<Note> notes) {
+		return notes.collectList().map(list -> list.isEmpty() ? new ResponseEntity<>(HttpStatus.NO_CONTENT)
+				: new ResponseEntity<>(list, HttpStatus.OK));
+	}
+
+}
@@ -0,0 +1,149 @@
+package com.app.reactive;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.app.reactive.model.Note;
+
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+		"spring.r2dbc.url=r2dbc:h2:mem:///reactivetest;DB_CLOSE_DELAY=-1", "spring.sql.init.mode=always",
+		// the servlet app owns the schema; its migrations come with it on the classpath
+		"spring.sql.init.schema-locations=classpath:db/migration/V*.sql" })
+public class NotesControllerIntegrationTest {
+
+	@Autowired
+	private WebTestClient webTestClient;
+
+	@Autowired
+	private DatabaseClient databaseClient;
+
+	@BeforeEach
+	void setup() {
+		databaseClient.sql("delete from note_ticket_ids").then()
+				.then(databaseClient.sql("delete from note").then()).block();
+	}
+
+	@Test
+	public void givenNoteObject_whenCreateNote_thenReturnSavedNoteWithTicketIds() {
+		Note note = Note.builder().title("Deploy").createdBy("user1").text("Blocked by OPS-12345").build();
+
+		Note saved = webTestClient.post().uri("/api/notes").bodyValue(note).exchange().expectStatus().isCreated()
+				.expectBody(Note.class).returnResult().getResponseBody();
+
+		webTestClient.get().uri("/api/notes/{id}", saved.getId()).exchange().expectStatus().isOk().expectHeader()
+				.valueEquals("ETag", "\"0\"").expectBody().jsonPath("$.text").isEqualTo(note.getText())
+				.jsonPath("$.ticketIds[0]").isEqualTo("OPS-12345");
+		webTestClient.get().uri("/api/notes/byticket/{ticketId}", "OPS-12345").exchange().expectStatus().isOk()
+				.expectBody().jsonPath("$.size()").isEqualTo(1);
+	}
+
+	@Test
+	public void whenGetAllNotesWithLimit_thenReturnPageAndNextCursor() {
+		List<Note> saved = addNotes(3);
+
+		webTestClient.get().uri("/api/notes?limit=2").accept(MediaType.APPLICATION_JSON).exchange().expectStatus()
+				.isOk().expectHeader().valueEquals("X-Next-Cursor", String.valueOf(saved.get(1).getId()))
+				.expectBody().jsonPath("$.size()").isEqualTo(2);
+	}
+
+	@Test
+	public void whenStreamNotes_thenEmitOneNotePerLine() {
+		List<Note> saved = addNotes(3);
+
+		Flux<Note> notes = webTestClient.get().uri("/api/notes").accept(MediaType.APPLICATION_NDJSON).exchange()
+				.expectStatus().isOk().returnResult(Note.class).getResponseBody();
+
+		StepVerifier.create(notes.map(Note::getId))
+				.expectNext(saved.get(0).getId(), saved.get(1).getId(), saved.get(2).getId()).verifyComplete();
+	}
+
+	@Test
+	public void whenSearchNote_thenStreamMatchesInTitleOrText() {
+		addNotes(3);
+
+		Flux<Note> notes = webTestClient.get().uri("/api/notes/search/{keyword}", "SPRING")
+				.accept(MediaType.TEXT_EVENT_STREAM).exchange().expectStatus().isOk().returnResult(Note.class)
+				.getResponseBody();
+
+		assertEquals(2, notes.collectList().block().size());
+	}
+
+	@Test
+	public void whenEditNoteWithStaleIfMatch_thenReturnPreconditionFailed() {
+		Note saved = addNotes(1).get(0);
+		Note updatedNote = Note.builder().title("Docker Notes").createdBy("user1").text("Notes on Docker").build();
+
+		webTestClient.put().uri("/api/notes/{id}", saved.getId()).header("If-Match", "\"0\"").bodyValue(updatedNote)
+				.exchange().expectStatus().isOk().expectHeader().valueEquals("ETag", "\"1\"");
+		webTestClient.put().uri("/api/notes/{id}", saved.getId()).header("If-Match", "\"0\"").bodyValue(updatedNote)
+				.exchange().expectStatus().isEqualTo(412);
+		webTestClient.put().uri("/api/notes/{id}", saved.getId() + 1000).bodyValue(updatedNote).exchange()
+				.expectStatus().isNotFound();
+	}
+
+	@Test
+	public void whenEditWithWeakIfMatchOrAnyOnMissingNote_thenReturnPreconditionFailed() {
+		Note saved = addNotes(1).get(0);
+		Note updatedNote = Note.builder().title("Docker Notes").createdBy("user1").text("Notes on Docker").build();
+
+		webTestClient.put().uri("/api/notes/{id}", saved.getId()).header("If-Match", "W/\"0\"").bodyValue(updatedNote)
+				.exchange().expectStatus().isEqualTo(412);
+		webTestClient.put().uri("/api/notes/{id}", saved.getId() + 1000).header("If-Match", "*").bodyValue(updatedNote)
+				.exchange().expectStatus().isEqualTo(412);
+	}
+
+	@Test
+	public void whenDeleteMissingNote_thenReturnNotFound() {
+		Note saved = addNotes(1).get(0);
+
+		webTestClient.delete().uri("/api/notes/{id}", saved.getId()).exchange().expectStatus().isOk();
+		webTestClient.delete().uri("/api/notes/{id}", saved.getId()).exchange().expectStatus().isNotFound()
+				.expectBody().jsonPath("$.error").isEqualTo("Note " + saved.getId() + " not found").jsonPath("$.path")
+				.isEqualTo("uri=/api/notes/" + saved.getId());
+	}
+
+	@Test
+	public void whenNotesChange_thenEachWriteIsInTheChangeLogInOrder() {
+		long before = lastSeq();
+		Note saved = addNotes(1).get(0);
+		Note updatedNote = Note.builder().title("Docker Notes").createdBy("user1").text("Notes on Docker").build();
+		webTestClient.put().uri("/api/notes/{id}", saved.getId()).bodyValue(updatedNote).exchange().expectStatus()
+				.isOk();
+		webTestClient.delete().uri("/api/notes/{id}", saved.getId()).exchange().expectStatus().isOk();
+
+		List<String> changes = databaseClient
+				.sql("select type || ' ' || note_id || ' ' || coalesce(title, '-') from note_change where seq > :seq "
+						+ "order by seq")
+				.bind("seq", before).map(row -> row.get(0, String.class)).all().collectList().block();
+		assertEquals(List.of("CREATED " + saved.getId() + " Spring Boot", "UPDATED " + saved.getId() + " Docker Notes",
+				"DELETED " + saved.getId() + " -"), changes);
+		assertEquals(before + 3, lastSeq());
+	}
+
+	private long lastSeq() {
+		return databaseClient.sql("select last_seq from note_change_head where id = 1")
+				.map(row -> row.get(0, Long.class)).one().block();
+	}
+
+	private List<Note> addNotes(int count) {
+		List<Note> notes = List.of(
+				Note.builder().title("Spring Boot").createdBy("user1").text("Notes on Spring Boot").build(),
+				Note.builder().title("Docker").createdBy("user2").text("Notes on Docker").build(),
+				Note.builder().title("Not related").createdBy("user2").text("Notes on spring security").build());
+		return webTestClient.post().uri("/api/notes/addnotes").bodyValue(notes.subList(0, count)).exchange()
+				.expectStatus().isCreated().expectBodyList(Note.class).returnResult().getResponseBody();
+	}
+
+}